@@ -0,0 +1,79 @@
+package com.shopperspoint.benchmark;
+
+import com.shopperspoint.image.ImageManifest;
+import com.shopperspoint.image.ImageStorageService;
+import com.shopperspoint.repository.StoredImageRepo;
+import com.shopperspoint.utill.ImageUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ImageResolutionBenchmark {
+
+    private static final String TYPE = "product-variation";
+    private static final List<String> EXTENSIONS = List.of(".jpg", ".jpeg", ".png", ".webp");
+    private static final int IMAGES = 1_000;
+
+    private Path root;
+    private String basePath;
+    private long nextId;
+    private ImageUtils imageUtils;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("images");
+        Path typeDirectory = Files.createDirectories(root.resolve(TYPE));
+        ImageManifest manifest = new ImageManifest(RepositoryStubs.stub(StoredImageRepo.class, Map.of()));
+        manifest.load(Map.of(), Set.of());
+        for (int id = 0; id < IMAGES; id++) {
+            // spread across extensions so the legacy probe pays for misses too
+            String extension = EXTENSIONS.get(id % EXTENSIONS.size());
+            Files.createFile(typeDirectory.resolve(id + extension));
+            manifest.record(TYPE, (long) id, ImageStorageService.blobKey("%064x".formatted(id), extension));
+        }
+        basePath = typeDirectory + "/";
+        imageUtils = new ImageUtils(manifest);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private long id() {
+        nextId = (nextId + 1) % IMAGES;
+        return nextId;
+    }
+
+
+    @Benchmark
+    public String legacyProbe() {
+        long id = id();
+        for (String ext : EXTENSIONS) {
+            File file = new File(basePath + id + ext);
+            if (file.exists()) {
+                return "http://localhost:8080/images/" + TYPE + "/" + id + ext;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public String manifestLookup() {
+        return imageUtils.getImage(id(), TYPE);
+    }
+}
@@ -0,0 +1,127 @@
+package com.shopperspoint.benchmark;
+
+import com.shopperspoint.controller.ImageController;
+import com.shopperspoint.image.ImageManifest;
+import com.shopperspoint.image.ImageStorageService;
+import com.shopperspoint.image.ImageVisibility;
+import com.shopperspoint.repository.StoredImageRepo;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// requests per second through the image handler, without the network and connector in front of it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class ImageServingBenchmark {
+
+    private static final String PRODUCT_HASH = "%064x".formatted(1);
+    private static final String PROFILE_HASH = "%064x".formatted(2);
+
+    private Path root;
+    private ImageController controller;
+    private HttpServletResponse response;
+    private HttpServletRequest productRequest;
+    private HttpServletRequest productRevalidation;
+    private HttpServletRequest profileRequest;
+
+    @Setup
+    public void setUp() throws IOException {
+        root = Files.createTempDirectory("images");
+        byte[] image = new byte[32 * 1024];
+        new Random(7).nextBytes(image);
+        String productKey = ImageStorageService.blobKey(PRODUCT_HASH, ".jpg");
+        String profileKey = ImageStorageService.blobKey(PROFILE_HASH, ".jpg");
+        for (String key : List.of(productKey, profileKey)) {
+            Path file = root.resolve(key);
+            Files.createDirectories(file.getParent());
+            Files.write(file, image);
+        }
+
+        StoredImageRepo storedImageRepo = RepositoryStubs.stub(StoredImageRepo.class, Map.of(
+                "existsByContentHashAndExtensionAndOwnerTypeIn", args -> PRODUCT_HASH.equals(args[0])));
+        controller = new ImageController(new ImageStorageService(storedImageRepo, new ImageManifest(storedImageRepo), root.toString(), 0),
+                new ImageVisibility(storedImageRepo, "product-variation", "product-variation-secondary",
+                        10_000, 60_000));
+
+        Map<String, Function<Object[], Object>> responseAnswers = new HashMap<>();
+        for (String setter : List.of("setStatus", "setHeader", "setDateHeader", "setContentType", "setContentLengthLong",
+                "sendError")) {
+            responseAnswers.put(setter, args -> null);
+        }
+        responseAnswers.put("getOutputStream", args -> new DiscardingOutputStream());
+        response = RepositoryStubs.stub(HttpServletResponse.class, responseAnswers);
+        productRequest = request("/images/" + productKey, Map.of(), null);
+        productRevalidation = request("/images/" + productKey,
+                Map.of("If-None-Match", "\"" + PRODUCT_HASH + ".jpg\""), null);
+        profileRequest = request("/images/" + profileKey, Map.of(), () -> "customer@shopperspoint.com");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    private static HttpServletRequest request(String uri, Map<String, String> headers, Principal principal) {
+        Map<String, Function<Object[], Object>> answers = new HashMap<>();
+        answers.put("getRequestURI", args -> uri);
+        answers.put("getContextPath", args -> "");
+        answers.put("getMethod", args -> "GET");
+        answers.put("getHeader", args -> headers.get((String) args[0]));
+        answers.put("getDateHeader", args -> -1L);
+        answers.put("getAttribute", args -> null);
+        answers.put("getUserPrincipal", args -> principal);
+        return RepositoryStubs.stub(HttpServletRequest.class, answers);
+    }
+
+
+    @Benchmark
+    public void productImage() throws IOException {
+        controller.serve(productRequest, response);
+    }
+
+    @Benchmark
+    public void productImageRevalidated() throws IOException {
+        controller.serve(productRevalidation, response);
+    }
+
+    @Benchmark
+    public void profileImageSignedIn() throws IOException {
+        controller.serve(profileRequest, response);
+    }
+
+    private static final class DiscardingOutputStream extends ServletOutputStream {
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+}
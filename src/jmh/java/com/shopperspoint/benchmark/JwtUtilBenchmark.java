@@ -0,0 +1,90 @@
+package com.shopperspoint.benchmark;
+
+import com.shopperspoint.jwt.JwtUtil;
+import com.shopperspoint.jwt.ParsedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.SecretKey;
+import java.lang.reflect.Field;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtUtilBenchmark {
+
+    private JwtUtil jwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private SecretKey key;
+    private String accessToken;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        byte[] secret = new byte[32];
+        for (int i = 0; i < secret.length; i++) {
+            secret[i] = (byte) (i * 7 + 3);
+        }
+        String encoded = Base64.getEncoder().encodeToString(secret);
+        key = Keys.hmacShaKeyFor(secret);
+        jwtUtil = new JwtUtil(encoded, 10_000);
+        uncachedJwtUtil = new JwtUtil(encoded, 0);
+        setField(jwtUtil, "accessExpirationTime", 15 * 60 * 1000);
+        setField(jwtUtil, "refreshExpirationTime", 24 * 60 * 60 * 1000);
+        accessToken = jwtUtil.generateToken("customer@shopperspoint.com", "access", 42L, 0);
+    }
+
+    private static void setField(JwtUtil target, String name, int value) throws ReflectiveOperationException {
+        Field field = JwtUtil.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.setInt(target, value);
+    }
+
+    private Claims legacyClaims(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build()
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken("customer@shopperspoint.com", "access", 42L, 0);
+    }
+
+    @Benchmark
+    public String extractUserName() {
+        return jwtUtil.extractUserName(accessToken);
+    }
+
+    @Benchmark
+    public String extractTokenType() {
+        return jwtUtil.extractTokenType(accessToken);
+    }
+
+    // what JwtFilter did per request before: subject, type, then validateToken's subject and expiry
+    @Benchmark
+    public boolean legacyFilterPath() {
+        String userName = legacyClaims(accessToken).getSubject();
+        String type = legacyClaims(accessToken).get("token_type", String.class);
+        return userName.equals(legacyClaims(accessToken).getSubject())
+                && !legacyClaims(accessToken).getExpiration().before(new Date())
+                && !"refresh".equals(type);
+    }
+
+    @Benchmark
+    public ParsedToken parseUncached() {
+        return uncachedJwtUtil.parse(accessToken);
+    }
+
+    @Benchmark
+    public ParsedToken parseCached() {
+        return jwtUtil.parse(accessToken);
+    }
+}
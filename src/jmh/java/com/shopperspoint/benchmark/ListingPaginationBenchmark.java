@@ -0,0 +1,105 @@
+package com.shopperspoint.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// the statements Spring Data issues for an offset page and for a keyset window over the product table
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ListingPaginationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int CATALOG_SIZE = 250_000;
+
+    @Param({"1", "10000"})
+    private int page;
+
+    private Connection connection;
+    private PreparedStatement offsetPage;
+    private PreparedStatement keysetPage;
+    private String lastName;
+    private long lastId;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:listing;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists product");
+            statement.execute("create table product (id bigint primary key, name varchar(255) not null, "
+                    + "brand varchar(255) not null, is_active boolean not null, is_deleted boolean not null)");
+            statement.execute("create index idx_product_name_id on product (name, id)");
+        }
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("insert into product values (?, ?, ?, true, false)")) {
+            for (long id = 1; id <= CATALOG_SIZE; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, String.format("product %07d", (id * 7919) % CATALOG_SIZE));
+                insert.setString(3, "brand " + id % 50);
+                insert.addBatch();
+                if (id % 10_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        offsetPage = connection.prepareStatement("select id from product where is_active = true and is_deleted = false "
+                + "order by name, id limit ? offset ?");
+        keysetPage = connection.prepareStatement("select id, name from product where is_active = true and is_deleted = false "
+                + "and (name > ? or (name = ? and id > ?)) order by name, id limit ?");
+
+        // the cursor a client holds when it asks for this page: the last row of the page before it
+        lastName = "";
+        if (page > 1) {
+            try (PreparedStatement previous = connection.prepareStatement(
+                    "select id, name from product order by name, id limit 1 offset ?")) {
+                previous.setLong(1, (long) (page - 1) * PAGE_SIZE - 1);
+                try (ResultSet row = previous.executeQuery()) {
+                    row.next();
+                    lastId = row.getLong(1);
+                    lastName = row.getString(2);
+                }
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+
+    @Benchmark
+    public List<Long> offset() throws SQLException {
+        offsetPage.setInt(1, PAGE_SIZE);
+        offsetPage.setLong(2, (long) (page - 1) * PAGE_SIZE);
+        return ids(offsetPage);
+    }
+
+    @Benchmark
+    public List<Long> keyset() throws SQLException {
+        keysetPage.setString(1, lastName);
+        keysetPage.setString(2, lastName);
+        keysetPage.setLong(3, lastId);
+        keysetPage.setInt(4, PAGE_SIZE);
+        return ids(keysetPage);
+    }
+
+    private static List<Long> ids(PreparedStatement statement) throws SQLException {
+        List<Long> ids = new ArrayList<>(PAGE_SIZE);
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                ids.add(rows.getLong(1));
+            }
+        }
+        return ids;
+    }
+}
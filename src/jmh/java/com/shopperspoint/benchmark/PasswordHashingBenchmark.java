@@ -0,0 +1,48 @@
+package com.shopperspoint.benchmark;
+
+import com.shopperspoint.exceptionhandler.TooManyRequestsException;
+import com.shopperspoint.security.PasswordHashingExecutor;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+// a login burst from more request threads than cores; sample time reports the p99 next to the throughput
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(32)
+public class PasswordHashingBenchmark {
+
+    private BCryptPasswordEncoder encoder;
+    private PasswordHashingExecutor hashingExecutor;
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder();
+        encodedPassword = encoder.encode("correct horse battery staple");
+        hashingExecutor = new PasswordHashingExecutor(encoder, 0, 32, 5000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+
+    @Benchmark
+    public boolean onRequestThread() {
+        return encoder.matches("correct horse battery staple", encodedPassword);
+    }
+
+    @Benchmark
+    public void throughHashingPool(Blackhole blackhole) {
+        try {
+            blackhole.consume(hashingExecutor.matches("correct horse battery staple", encodedPassword));
+        } catch (TooManyRequestsException e) {
+            blackhole.consume(e);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.shopperspoint.benchmark;
+
+import com.shopperspoint.dto.ProductViewDTO;
+import com.shopperspoint.dto.ProductViewRow;
+import com.shopperspoint.dto.VariationImageRow;
+import com.shopperspoint.entity.Category;
+import com.shopperspoint.entity.Product;
+import com.shopperspoint.entity.Seller;
+import com.shopperspoint.image.ImageManifest;
+import com.shopperspoint.repository.ProductRepo;
+import com.shopperspoint.repository.ProductVariationRepo;
+import com.shopperspoint.repository.StoredImageRepo;
+import com.shopperspoint.search.IndexedProduct;
+import com.shopperspoint.search.ProductSearchIndex;
+import com.shopperspoint.service.ProductViewAssembler;
+import com.shopperspoint.utill.ImageUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Field;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductListingBenchmark {
+
+    private static final String TYPE = "product-variation";
+    private static final String[] BRANDS = {"acme", "globex", "initech", "umbrella", "hooli"};
+    private static final String[] NOUNS = {"shirt", "jacket", "trousers", "sneakers", "watch", "backpack"};
+
+    @Param({"10", "50"})
+    private int pageSize;
+
+    @Param({"10000"})
+    private int catalogSize;
+
+    private List<Product> catalog;
+    private List<Long> pageIds;
+    private ProductViewAssembler assembler;
+    private ProductSearchIndex searchIndex;
+    private Connection connection;
+    private PreparedStatement likePage;
+    private PreparedStatement likeCount;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException, SQLException {
+        Category category = new Category();
+        category.setId(7L);
+        category.setName("clothing");
+        Seller seller = new Seller();
+        seller.setId(3L);
+
+        ImageManifest manifest = new ImageManifest(RepositoryStubs.stub(StoredImageRepo.class, Map.of()));
+        manifest.load(Map.of(), Set.of());
+        catalog = new ArrayList<>(catalogSize);
+        Map<Long, ProductViewRow> rows = new HashMap<>();
+        for (long id = 1; id <= catalogSize; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setName(NOUNS[(int) (id % NOUNS.length)] + " " + id);
+            product.setBrand(BRANDS[(int) (id % BRANDS.length)]);
+            product.setDescription("comfortable everyday " + NOUNS[(int) ((id / 3) % NOUNS.length)]);
+            product.setIsActive(true);
+            product.setIsDeleted(false);
+            product.setIsCancellable(true);
+            product.setIsReturnable(true);
+            product.setCategory(category);
+            product.setSeller(seller);
+            catalog.add(product);
+            rows.put(id, new ProductViewRow(id, product.getName(), product.getBrand(), product.getDescription(),
+                    true, true, category.getId(), category.getName()));
+            manifest.record(TYPE, id * 10, id * 10 + ".jpg");
+        }
+        pageIds = LongStream.rangeClosed(1, pageSize).boxed().toList();
+
+        ProductRepo productRepo = RepositoryStubs.stub(ProductRepo.class, Map.of(
+                "findViewRowsByIdIn", args -> ((Collection<?>) args[0]).stream().map(rows::get).toList()));
+        ProductVariationRepo productVariationRepo = RepositoryStubs.stub(ProductVariationRepo.class, Map.of(
+                "findActiveImageRowsByProductIdIn", args -> ((Collection<?>) args[0]).stream()
+                        .map(id -> new VariationImageRow((Long) id, (Long) id * 10, null)).toList()));
+
+        assembler = new ProductViewAssembler(productRepo, productVariationRepo, new ImageUtils(manifest));
+        Field type = ProductViewAssembler.class.getDeclaredField("type");
+        type.setAccessible(true);
+        type.set(assembler, TYPE);
+
+        searchIndex = new ProductSearchIndex(productRepo);
+        catalog.forEach(searchIndex::index);
+
+        setUpDatabase();
+    }
+
+    // the SQL Hibernate generated for the old findByAllCategoryIdsAndFilter JPQL, page query plus its count query
+    private void setUpDatabase() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:product-listing;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists product");
+            statement.execute("create table product (id bigint primary key, name varchar(255), brand varchar(255), "
+                    + "description varchar(255), category_id bigint, is_active boolean, is_deleted boolean)");
+        }
+
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement("insert into product values (?, ?, ?, ?, ?, ?, ?)")) {
+            for (Product product : catalog) {
+                insert.setLong(1, product.getId());
+                insert.setString(2, product.getName());
+                insert.setString(3, product.getBrand());
+                insert.setString(4, product.getDescription());
+                insert.setLong(5, product.getCategory().getId());
+                insert.setBoolean(6, product.getIsActive());
+                insert.setBoolean(7, product.getIsDeleted());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+
+        String filter = " from product p where p.is_deleted = false and p.is_active = true and p.category_id in (?) "
+                + "and (lower(p.name) like lower('%' || ? || '%') or lower(p.brand) like lower('%' || ? || '%') "
+                + "or lower(p.description) like lower('%' || ? || '%'))";
+        likePage = connection.prepareStatement("select p.id" + filter + " order by p.id offset 0 rows fetch first ? rows only");
+        likeCount = connection.prepareStatement("select count(p.id)" + filter);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+
+    @Benchmark
+    public List<ProductViewDTO> assemblePage() {
+        return assembler.assemble(pageIds);
+    }
+
+    @Benchmark
+    public List<Long> indexSearch() {
+        return searchIndex.search("acme jack", ProductSearchIndex.ALL_FIELDS, IndexedProduct::active, "id", true, 0, pageSize);
+    }
+
+    // LIKE matched the whole filter as one substring, so both sides get a single term here
+    @Benchmark
+    public List<Long> indexSearchSingleTerm() {
+        return searchIndex.search("jack", ProductSearchIndex.ALL_FIELDS, IndexedProduct::active, "id", true, 0, pageSize);
+    }
+
+    @Benchmark
+    public void likeQuerySingleTerm(Blackhole blackhole) throws SQLException {
+        for (PreparedStatement statement : List.of(likePage, likeCount)) {
+            statement.setLong(1, 7L);
+            statement.setString(2, "jack");
+            statement.setString(3, "jack");
+            statement.setString(4, "jack");
+        }
+        likePage.setInt(5, pageSize);
+
+        try (ResultSet rows = likePage.executeQuery()) {
+            while (rows.next()) {
+                blackhole.consume(rows.getLong(1));
+            }
+        }
+        try (ResultSet count = likeCount.executeQuery()) {
+            count.next();
+            blackhole.consume(count.getLong(1));
+        }
+    }
+
+    @Benchmark
+    public List<Long> naiveScan() {
+        List<Long> hits = new ArrayList<>();
+        for (Product product : catalog) {
+            String text = (product.getName() + " " + product.getBrand() + " " + product.getDescription()).toLowerCase();
+            if (text.contains("acme") && text.contains("jack")) {
+                hits.add(product.getId());
+                if (hits.size() == pageSize) {
+                    break;
+                }
+            }
+        }
+        return hits;
+    }
+}
@@ -0,0 +1,103 @@
+package com.shopperspoint.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopperspoint.catalog.CategoryMetadataValidatorRegistry.CompiledValidator;
+import com.shopperspoint.catalog.VariationMetadata;
+import com.shopperspoint.catalog.VariationMetadataCache;
+import com.shopperspoint.entity.CategoryMetadataField;
+import com.shopperspoint.entity.CategoryMetadataFieldValues;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class VariationMetadataBenchmark {
+
+    private static final String JSON = "{\"colour\":\"red\",\"size\":\"xl\",\"material\":\"cotton\",\"fit\":\"slim\"}";
+
+    private ObjectMapper objectMapper;
+    private VariationMetadataCache cache;
+    private List<CategoryMetadataFieldValues> fieldValues;
+    private CompiledValidator compiledValidator;
+    private Map<String, String> requestMetadata;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = new ObjectMapper();
+        cache = new VariationMetadataCache(objectMapper, 10_000);
+        cache.get(1L, JSON);
+
+        fieldValues = List.of(
+                fieldValues("colour", "red,green,blue,black,white,yellow,orange,purple,pink,grey"),
+                fieldValues("size", "xs,s,m,l,xl,xxl,xxxl"),
+                fieldValues("material", "cotton,linen,wool,silk,polyester,denim"),
+                fieldValues("fit", "slim,regular,relaxed,oversized")
+        );
+        compiledValidator = CompiledValidator.compile(fieldValues);
+        requestMetadata = Map.of("colour", "Red", "size", "XL", "material", "Cotton", "fit", "Slim");
+    }
+
+    private static CategoryMetadataFieldValues fieldValues(String name, String values) {
+        CategoryMetadataField field = new CategoryMetadataField();
+        field.setName(name);
+        CategoryMetadataFieldValues fieldValues = new CategoryMetadataFieldValues();
+        fieldValues.setCategoryMetadataField(field);
+        fieldValues.setFieldValues(values);
+        return fieldValues;
+    }
+
+
+    @Benchmark
+    public Map<String, String> legacyParse() throws JsonProcessingException {
+        return objectMapper.readValue(JSON, new TypeReference<>() {
+        });
+    }
+
+    @Benchmark
+    public Map<String, String> legacyParseAndLowerCase() throws JsonProcessingException {
+        Map<String, String> parsed = objectMapper.readValue(JSON, new TypeReference<>() {
+        });
+        return parsed.entrySet().stream()
+                .collect(Collectors.toMap(e -> e.getKey().toLowerCase(), e -> e.getValue().toLowerCase()));
+    }
+
+    @Benchmark
+    public VariationMetadata uncachedParse() throws JsonProcessingException {
+        return cache.parse(JSON);
+    }
+
+    @Benchmark
+    public VariationMetadata cachedLookup() throws JsonProcessingException {
+        return cache.get(1L, JSON);
+    }
+
+    @Benchmark
+    public String fingerprint() {
+        return VariationMetadata.of(requestMetadata).fingerprint();
+    }
+
+    @Benchmark
+    public boolean legacyValidate() {
+        for (CategoryMetadataFieldValues field : fieldValues) {
+            String fieldName = field.getCategoryMetadataField().getName().toLowerCase();
+            List<String> allowedValues = Arrays.asList(field.getFieldValues().toLowerCase().split(","));
+            String value = requestMetadata.get(fieldName);
+            if (value == null || !allowedValues.contains(value.toLowerCase())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Benchmark
+    public Map<String, String> compiledValidate() {
+        compiledValidator.validate(requestMetadata);
+        return requestMetadata;
+    }
+}
@@ -0,0 +1,53 @@
+package com.shopperspoint.catalog;
+
+import com.shopperspoint.repository.CategoryClosureRepo;
+import com.shopperspoint.repository.CategoryRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+@Slf4j
+public class CategoryClosureBackfill {
+
+    private final CategoryRepo categoryRepo;
+    private final CategoryClosureRepo categoryClosureRepo;
+
+    @Autowired
+    public CategoryClosureBackfill(CategoryRepo categoryRepo, CategoryClosureRepo categoryClosureRepo) {
+        this.categoryRepo = categoryRepo;
+        this.categoryClosureRepo = categoryClosureRepo;
+    }
+
+
+    // every category owns exactly one depth-0 row, so a mismatch means the table predates it or drifted
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void onApplicationReady() {
+        long categories = categoryRepo.count();
+        if (categoryClosureRepo.countByDepth(0) == categories) {
+            return;
+        }
+        rebuild(categories);
+    }
+
+    // one set-based insert per level of the hierarchy
+    private void rebuild(long categories) {
+        long start = System.currentTimeMillis();
+        categoryClosureRepo.deleteAllInBatch();
+
+        long rows = categoryClosureRepo.insertSelfPaths();
+        int depth = 0;
+        int inserted;
+        while (depth < categories && (inserted = categoryClosureRepo.insertPathsBelowDepth(depth)) > 0) {
+            rows += inserted;
+            depth++;
+        }
+
+        log.info("Rebuilt category closure for {} categories ({} rows, depth {}) in {} ms",
+                categories, rows, depth, System.currentTimeMillis() - start);
+    }
+}
@@ -0,0 +1,96 @@
+package com.shopperspoint.catalog;
+
+import com.shopperspoint.entity.CategoryMetadataFieldValues;
+import com.shopperspoint.exceptionhandler.BadRequestException;
+import com.shopperspoint.exceptionhandler.ResouceNotFound;
+import com.shopperspoint.repository.CategoryMetadataFieldValuesRepo;
+import com.shopperspoint.utill.TransactionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class CategoryMetadataValidatorRegistry {
+
+    private final CategoryMetadataFieldValuesRepo categoryMetadataFieldValuesRepo;
+    private final Map<Long, CompiledValidator> validators = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public CategoryMetadataValidatorRegistry(CategoryMetadataFieldValuesRepo categoryMetadataFieldValuesRepo) {
+        this.categoryMetadataFieldValuesRepo = categoryMetadataFieldValuesRepo;
+    }
+
+
+    public CompiledValidator validatorFor(Long categoryId) {
+        CompiledValidator validator = validators.get(categoryId);
+        if (validator != null) {
+            return validator;
+        }
+
+        // a load that overlaps an invalidation may have read the old values, so it is used once but not cached
+        long loadedAt = generation.get();
+        validator = CompiledValidator.compile(categoryMetadataFieldValuesRepo.findByCategoryId(categoryId));
+        if (generation.get() == loadedAt) {
+            validators.putIfAbsent(categoryId, validator);
+        }
+        return validator;
+    }
+
+    public void invalidate(Long categoryId) {
+        generation.incrementAndGet();
+        validators.remove(categoryId);
+    }
+
+    public void invalidateAfterCommit(Long categoryId) {
+        TransactionUtils.afterCommit(() -> invalidate(categoryId));
+    }
+
+
+    public static final class CompiledValidator {
+
+        private final String[] fieldNames;
+        private final Set<String>[] allowedValues;
+
+        private CompiledValidator(String[] fieldNames, Set<String>[] allowedValues) {
+            this.fieldNames = fieldNames;
+            this.allowedValues = allowedValues;
+        }
+
+        @SuppressWarnings("unchecked")
+        public static CompiledValidator compile(List<CategoryMetadataFieldValues> fieldValues) {
+            String[] fieldNames = new String[fieldValues.size()];
+            Set<String>[] allowedValues = new Set[fieldValues.size()];
+            for (int i = 0; i < fieldValues.size(); i++) {
+                CategoryMetadataFieldValues field = fieldValues.get(i);
+                fieldNames[i] = field.getCategoryMetadataField().getName().toLowerCase();
+                allowedValues[i] = Set.copyOf(Arrays.asList(field.getFieldValues().toLowerCase().split(",")));
+            }
+            return new CompiledValidator(fieldNames, allowedValues);
+        }
+
+        public void validate(Map<String, String> metaData) {
+            if (fieldNames.length == 0) {
+                throw new ResouceNotFound("No metadata fields defined for this category.");
+            }
+
+            for (int i = 0; i < fieldNames.length; i++) {
+                if (!metaData.containsKey(fieldNames[i])) {
+                    throw new ResouceNotFound("Missing metadata filed name");
+                }
+
+                String value = metaData.get(fieldNames[i]);
+                if (value == null || !allowedValues[i].contains(value.toLowerCase())) {
+                    throw new BadRequestException("Invalid meta data value for allowed values ");
+                }
+            }
+
+            if (metaData.isEmpty()) {
+                throw new BadRequestException("Variation must have at least one metadata field value");
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.shopperspoint.catalog;
+
+import com.shopperspoint.entity.Category;
+
+import java.util.*;
+
+public final class CategoryTree {
+
+    private static final int NO_PARENT = -1;
+
+    private final long[] ids;
+    private final String[] names;
+    private final int[] parents;
+    private final int[][] children;
+    private final boolean[] leaf;
+    private final int[][] ancestors;
+    private final long[][] descendantLeafIds;
+    private final long[] leafIds;
+    private final Map<Long, Integer> indexById;
+
+    private CategoryTree(long[] ids, String[] names, int[] parents, int[][] children, boolean[] leaf,
+                         int[][] ancestors, long[][] descendantLeafIds, long[] leafIds, Map<Long, Integer> indexById) {
+        this.ids = ids;
+        this.names = names;
+        this.parents = parents;
+        this.children = children;
+        this.leaf = leaf;
+        this.ancestors = ancestors;
+        this.descendantLeafIds = descendantLeafIds;
+        this.leafIds = leafIds;
+        this.indexById = indexById;
+    }
+
+    public static CategoryTree of(List<Category> categories) {
+        int size = categories.size();
+        List<Category> sorted = new ArrayList<>(categories);
+        sorted.sort(Comparator.comparing(Category::getId));
+
+        long[] ids = new long[size];
+        String[] names = new String[size];
+        Map<Long, Integer> indexById = new HashMap<>(size * 2);
+
+        for (int i = 0; i < size; i++) {
+            Category category = sorted.get(i);
+            ids[i] = category.getId();
+            names[i] = category.getName();
+            indexById.put(category.getId(), i);
+        }
+
+        int[] parents = new int[size];
+        int[] childCount = new int[size];
+        for (int i = 0; i < size; i++) {
+            Category parent = sorted.get(i).getParentCategory();
+            Integer parentIndex = parent == null ? null : indexById.get(parent.getId());
+            parents[i] = parentIndex == null ? NO_PARENT : parentIndex;
+            if (parents[i] != NO_PARENT) {
+                childCount[parents[i]]++;
+            }
+        }
+
+        int[][] children = new int[size][];
+        boolean[] leaf = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            children[i] = new int[childCount[i]];
+            leaf[i] = childCount[i] == 0;
+        }
+        int[] filled = new int[size];
+        for (int i = 0; i < size; i++) {
+            if (parents[i] != NO_PARENT) {
+                children[parents[i]][filled[parents[i]]++] = i;
+            }
+        }
+
+        int[][] ancestors = new int[size][];
+        for (int i = 0; i < size; i++) {
+            Deque<Integer> chain = new ArrayDeque<>();
+            int current = parents[i];
+            while (current != NO_PARENT && chain.size() < size) {
+                chain.addFirst(current);
+                current = parents[current];
+            }
+            ancestors[i] = chain.stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        long[][] descendantLeafIds = new long[size][];
+        for (int i = 0; i < size; i++) {
+            collectLeaves(i, children, leaf, ids, descendantLeafIds);
+        }
+
+        long[] leafIds = new long[size];
+        int leafCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (leaf[i]) {
+                leafIds[leafCount++] = ids[i];
+            }
+        }
+
+        return new CategoryTree(ids, names, parents, children, leaf, ancestors, descendantLeafIds,
+                Arrays.copyOf(leafIds, leafCount), Map.copyOf(indexById));
+    }
+
+    private static long[] collectLeaves(int index, int[][] children, boolean[] leaf, long[] ids, long[][] result) {
+        if (result[index] != null) {
+            return result[index];
+        }
+
+        if (leaf[index]) {
+            result[index] = new long[]{ids[index]};
+            return result[index];
+        }
+
+        result[index] = new long[0];
+        long[] collected = new long[0];
+        for (int child : children[index]) {
+            long[] childLeaves = collectLeaves(child, children, leaf, ids, result);
+            long[] merged = Arrays.copyOf(collected, collected.length + childLeaves.length);
+            System.arraycopy(childLeaves, 0, merged, collected.length, childLeaves.length);
+            collected = merged;
+        }
+        result[index] = collected;
+        return collected;
+    }
+
+
+    public boolean contains(Long categoryId) {
+        return categoryId != null && indexById.containsKey(categoryId);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public String getName(Long categoryId) {
+        Integer index = indexById.get(categoryId);
+        return index == null ? null : names[index];
+    }
+
+    public boolean isLeaf(Long categoryId) {
+        Integer index = indexById.get(categoryId);
+        return index != null && leaf[index];
+    }
+
+    public Long getParentId(Long categoryId) {
+        Integer index = indexById.get(categoryId);
+        return index == null || parents[index] == NO_PARENT ? null : ids[parents[index]];
+    }
+
+    public List<Long> getChildIds(Long categoryId) {
+        Integer index = indexById.get(categoryId);
+        if (index == null) {
+            return List.of();
+        }
+        return Arrays.stream(children[index]).mapToObj(child -> ids[child]).toList();
+    }
+
+    public List<Long> getAncestorIds(Long categoryId) {
+        Integer index = indexById.get(categoryId);
+        if (index == null) {
+            return List.of();
+        }
+        return Arrays.stream(ancestors[index]).mapToObj(ancestor -> ids[ancestor]).toList();
+    }
+
+    public List<Long> getDescendantLeafIds(Long categoryId) {
+        Integer index = indexById.get(categoryId);
+        if (index == null) {
+            return List.of();
+        }
+        return Arrays.stream(descendantLeafIds[index]).boxed().toList();
+    }
+
+    public List<Long> getLeafIds() {
+        return Arrays.stream(leafIds).boxed().toList();
+    }
+}
@@ -0,0 +1,54 @@
+package com.shopperspoint.catalog;
+
+import com.shopperspoint.repository.CategoryRepo;
+import com.shopperspoint.utill.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+@Component
+@Slf4j
+public class CategoryTreeCache {
+
+    private final CategoryRepo categoryRepo;
+    private final AtomicReference<CategoryTree> tree = new AtomicReference<>();
+
+    @Autowired
+    public CategoryTreeCache(CategoryRepo categoryRepo) {
+        this.categoryRepo = categoryRepo;
+    }
+
+    public CategoryTree get() {
+        CategoryTree current = tree.get();
+        if (current == null) {
+            synchronized (this) {
+                current = tree.get();
+                if (current == null) {
+                    current = rebuild();
+                }
+            }
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    public synchronized CategoryTree rebuild() {
+        long start = System.currentTimeMillis();
+        CategoryTree snapshot = CategoryTree.of(categoryRepo.findAll());
+        tree.set(snapshot);
+        log.info("Category tree rebuilt with {} categories in {} ms", snapshot.size(), System.currentTimeMillis() - start);
+        return snapshot;
+    }
+
+    public void rebuildAfterCommit() {
+        TransactionUtils.afterCommit(this::rebuild);
+    }
+}
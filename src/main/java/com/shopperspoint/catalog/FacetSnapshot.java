@@ -0,0 +1,11 @@
+package com.shopperspoint.catalog;
+
+import java.util.Map;
+
+public record FacetSnapshot(Map<String, Integer> brandCounts,
+                            Long minPrice,
+                            Long maxPrice,
+                            Map<String, Map<String, Integer>> metadataValueCounts) {
+
+    public static final FacetSnapshot EMPTY = new FacetSnapshot(Map.of(), null, null, Map.of());
+}
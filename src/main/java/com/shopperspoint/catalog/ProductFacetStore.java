@@ -0,0 +1,322 @@
+package com.shopperspoint.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.shopperspoint.entity.Product;
+import com.shopperspoint.entity.ProductVariation;
+import com.shopperspoint.repository.ProductRepo;
+import com.shopperspoint.repository.ProductVariationRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Component
+@Slf4j
+public class ProductFacetStore {
+
+    private final ProductRepo productRepo;
+    private final ProductVariationRepo productVariationRepo;
+    private final VariationMetadataCache variationMetadataCache;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, FacetSnapshot> mergedCache = new ConcurrentHashMap<>();
+    private Map<Long, LeafFacets> leaves = new HashMap<>();
+    private boolean loaded;
+    // while a reconcile loads, writes to products up to the batch it is reading are kept and replayed onto the
+    // rebuilt counts; a product in a later batch shows up with the write applied
+    private List<Consumer<Map<Long, LeafFacets>>> deltasDuringLoad;
+    private long scannedThroughId;
+
+    @Autowired
+    public ProductFacetStore(ProductRepo productRepo, ProductVariationRepo productVariationRepo,
+                             VariationMetadataCache variationMetadataCache) {
+        this.productRepo = productRepo;
+        this.productVariationRepo = productVariationRepo;
+        this.variationMetadataCache = variationMetadataCache;
+    }
+
+    @Value("${facet.rebuild.batch.size:500}")
+    private int batchSize;
+
+
+    public void addProduct(Product product, List<ProductVariation> variations) {
+        applyProduct(product, variations, 1);
+    }
+
+    public void removeProduct(Product product, List<ProductVariation> variations) {
+        applyProduct(product, variations, -1);
+    }
+
+    public void updateVariation(Product product, VariationFacet before, VariationFacet after) {
+        if (!counts(product)) {
+            return;
+        }
+
+        Long categoryId = product.getCategory().getId();
+        Consumer<Map<Long, LeafFacets>> delta = target -> {
+            LeafFacets facets = target.computeIfAbsent(categoryId, id -> new LeafFacets());
+            if (before != null) {
+                facets.applyVariation(before, -1, this::parseMetadata);
+            }
+            if (after != null) {
+                facets.applyVariation(after, 1, this::parseMetadata);
+            }
+        };
+
+        lock.writeLock().lock();
+        try {
+            apply(product.getId(), delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    public FacetSnapshot facetsFor(CategoryTree categoryTree, Long categoryId) {
+        FacetSnapshot cached = mergedCache.get(categoryId);
+        if (cached != null) {
+            return cached;
+        }
+
+        FacetSnapshot snapshot;
+        lock.readLock().lock();
+        try {
+            LeafFacets merged = new LeafFacets();
+            for (Long leafId : categoryTree.getDescendantLeafIds(categoryId)) {
+                LeafFacets facets = leaves.get(leafId);
+                if (facets != null) {
+                    merged.merge(facets);
+                }
+            }
+            snapshot = merged.snapshot();
+            mergedCache.put(categoryId, snapshot);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return snapshot;
+    }
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reconcile();
+    }
+
+    @Scheduled(initialDelayString = "${facet.reconcile.interval.ms:3600000}",
+            fixedDelayString = "${facet.reconcile.interval.ms:3600000}")
+    public synchronized void reconcile() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            deltasDuringLoad = new ArrayList<>();
+            scannedThroughId = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, LeafFacets> rebuilt;
+        try {
+            rebuilt = loadFromDatabase();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                deltasDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            int replayed = deltasDuringLoad.size();
+            deltasDuringLoad.forEach(delta -> delta.accept(rebuilt));
+            deltasDuringLoad = null;
+
+            int drifted = 0;
+            if (loaded) {
+                Set<Long> categoryIds = new HashSet<>(leaves.keySet());
+                categoryIds.addAll(rebuilt.keySet());
+                for (Long categoryId : categoryIds) {
+                    FacetSnapshot current = leaves.getOrDefault(categoryId, new LeafFacets()).snapshot();
+                    FacetSnapshot expected = rebuilt.getOrDefault(categoryId, new LeafFacets()).snapshot();
+                    if (!current.equals(expected)) {
+                        drifted++;
+                    }
+                }
+            }
+
+            leaves = rebuilt;
+            loaded = true;
+            changed();
+
+            if (drifted > 0) {
+                log.warn("Facet reconciliation corrected {} drifted categories", drifted);
+            }
+            log.info("Facet store reconciled with {} leaf categories and {} replayed writes in {} ms",
+                    rebuilt.size(), replayed, System.currentTimeMillis() - start);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    // keyset over ids, so a delete behind the scan cannot shift a product out of the next batch. Each batch's upper
+    // bound is published before its rows are read: a write that commits after the read is buffered and replayed.
+    // One that commits between publishing and reading lands twice until the next reconcile corrects it.
+    private Map<Long, LeafFacets> loadFromDatabase() {
+        Map<Long, LeafFacets> rebuilt = new HashMap<>();
+        long lastId = 0;
+        List<Long> ids;
+        do {
+            ids = productRepo.findIdsAfter(lastId, Limit.of(batchSize));
+            // the last batch also covers products created from here on, which it will not read
+            long upperBound = ids.size() < batchSize ? Long.MAX_VALUE : ids.get(ids.size() - 1);
+            lock.writeLock().lock();
+            try {
+                scannedThroughId = upperBound;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+
+            List<Product> counted = productRepo.findAllById(ids).stream().filter(ProductFacetStore::counts).toList();
+            if (!counted.isEmpty()) {
+                Map<Long, List<ProductVariation>> variationsByProduct = productVariationRepo.findByProductIdIn(
+                                counted.stream().map(Product::getId).toList())
+                        .stream()
+                        .collect(Collectors.groupingBy(variation -> variation.getProduct().getId()));
+
+                for (Product product : counted) {
+                    LeafFacets facets = rebuilt.computeIfAbsent(product.getCategory().getId(), id -> new LeafFacets());
+                    facets.applyProduct(product.getBrand(),
+                            variationsByProduct.getOrDefault(product.getId(), List.of()).stream().map(VariationFacet::of).toList(),
+                            1, this::parseMetadata);
+                }
+            }
+        } while (ids.size() == batchSize);
+        return rebuilt;
+    }
+
+    private void applyProduct(Product product, List<ProductVariation> variations, int sign) {
+        if (!counts(product)) {
+            return;
+        }
+
+        List<VariationFacet> facetsOfVariations = variations == null ? List.of()
+                : variations.stream().map(VariationFacet::of).toList();
+
+        Long categoryId = product.getCategory().getId();
+        lock.writeLock().lock();
+        try {
+            apply(product.getId(), target -> target.computeIfAbsent(categoryId, id -> new LeafFacets())
+                    .applyProduct(product.getBrand(), facetsOfVariations, sign, this::parseMetadata));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // caller holds the write lock
+    private void apply(Long productId, Consumer<Map<Long, LeafFacets>> delta) {
+        delta.accept(leaves);
+        if (deltasDuringLoad != null && productId != null && productId <= scannedThroughId) {
+            deltasDuringLoad.add(delta);
+        }
+        changed();
+    }
+
+    private void changed() {
+        mergedCache.clear();
+    }
+
+    private static boolean counts(Product product) {
+        return product != null && product.getCategory() != null
+                && Boolean.TRUE.equals(product.getIsActive())
+                && !Boolean.TRUE.equals(product.getIsDeleted());
+    }
+
+    private VariationMetadata parseMetadata(VariationFacet variation) {
+        try {
+            return variationMetadataCache.get(variation.id(), variation.metaData());
+        } catch (JsonProcessingException e) {
+            log.error("Failed to parse variation metadata for facets: {}", e.getMessage());
+            return VariationMetadata.EMPTY;
+        }
+    }
+
+
+    private interface MetadataParser {
+        VariationMetadata parse(VariationFacet variation);
+    }
+
+    private static final class LeafFacets {
+        private final Map<String, Integer> brandCounts = new HashMap<>();
+        private final TreeMap<Long, Integer> priceCounts = new TreeMap<>();
+        private final Map<String, Map<String, Integer>> metadataCounts = new HashMap<>();
+
+        void applyProduct(String brand, List<VariationFacet> variations, int sign, MetadataParser parser) {
+            if (brand != null) {
+                adjust(brandCounts, brand, sign);
+            }
+            for (VariationFacet variation : variations) {
+                applyVariation(variation, sign, parser);
+            }
+        }
+
+        void applyVariation(VariationFacet variation, int sign, MetadataParser parser) {
+            if (!variation.active()) {
+                return;
+            }
+            if (variation.price() != null) {
+                adjust(priceCounts, variation.price(), sign);
+            }
+            parser.parse(variation).forEach((field, value) -> {
+                Map<String, Integer> valueCounts = metadataCounts.computeIfAbsent(field, key -> new HashMap<>());
+                adjust(valueCounts, value, sign);
+                if (valueCounts.isEmpty()) {
+                    metadataCounts.remove(field);
+                }
+            });
+        }
+
+        void merge(LeafFacets other) {
+            other.brandCounts.forEach((brand, count) -> brandCounts.merge(brand, count, Integer::sum));
+            other.priceCounts.forEach((price, count) -> priceCounts.merge(price, count, Integer::sum));
+            other.metadataCounts.forEach((field, values) -> {
+                Map<String, Integer> valueCounts = metadataCounts.computeIfAbsent(field, key -> new HashMap<>());
+                values.forEach((value, count) -> valueCounts.merge(value, count, Integer::sum));
+            });
+        }
+
+        FacetSnapshot snapshot() {
+            Map<String, Map<String, Integer>> metadata = new TreeMap<>();
+            metadataCounts.forEach((field, values) -> metadata.put(field, Collections.unmodifiableMap(new TreeMap<>(values))));
+            return new FacetSnapshot(
+                    Collections.unmodifiableMap(new TreeMap<>(brandCounts)),
+                    priceCounts.isEmpty() ? null : priceCounts.firstKey(),
+                    priceCounts.isEmpty() ? null : priceCounts.lastKey(),
+                    Collections.unmodifiableMap(metadata)
+            );
+        }
+
+        private static <K> void adjust(Map<K, Integer> counts, K key, int sign) {
+            counts.compute(key, (k, count) -> {
+                int updated = (count == null ? 0 : count) + sign;
+                return updated > 0 ? updated : null;
+            });
+        }
+    }
+}
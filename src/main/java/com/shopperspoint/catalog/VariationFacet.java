@@ -0,0 +1,11 @@
+package com.shopperspoint.catalog;
+
+import com.shopperspoint.entity.ProductVariation;
+
+public record VariationFacet(Long id, Long price, String metaData, boolean active) {
+
+    public static VariationFacet of(ProductVariation variation) {
+        return new VariationFacet(variation.getId(), variation.getPrice(), variation.getMetaData(),
+                Boolean.TRUE.equals(variation.getIsActive()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.shopperspoint.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.shopperspoint.entity.ProductVariation;
+import com.shopperspoint.repository.ProductVariationRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+@Slf4j
+public class VariationFingerprintBackfill {
+
+    private final ProductVariationRepo productVariationRepo;
+    private final VariationMetadataCache variationMetadataCache;
+
+    @Autowired
+    public VariationFingerprintBackfill(ProductVariationRepo productVariationRepo, VariationMetadataCache variationMetadataCache) {
+        this.productVariationRepo = productVariationRepo;
+        this.variationMetadataCache = variationMetadataCache;
+    }
+
+    @Value("${variation.fingerprint.backfill.batch.size:500}")
+    private int batchSize;
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        backfill();
+    }
+
+    public int backfill() {
+        long start = System.currentTimeMillis();
+        int filled = 0;
+        int duplicates = 0;
+        long lastId = 0;
+
+        List<ProductVariation> batch;
+        do {
+            batch = productVariationRepo.findByMetadataFingerprintIsNullAndIdGreaterThanOrderByIdAsc(lastId, Limit.of(batchSize));
+            for (ProductVariation variation : batch) {
+                lastId = variation.getId();
+                String fingerprint;
+                try {
+                    fingerprint = variationMetadataCache.parse(variation.getMetaData()).fingerprint();
+                } catch (JsonProcessingException e) {
+                    log.error("Skipping fingerprint for variation {}: unreadable metadata", variation.getId());
+                    continue;
+                }
+
+                // rows that already collide stay null so the constraint can still be created; they need manual cleanup
+                if (productVariationRepo.existsByProductIdAndMetadataFingerprint(variation.getProduct().getId(), fingerprint)) {
+                    log.warn("Variation {} duplicates another variation of product {}", variation.getId(), variation.getProduct().getId());
+                    duplicates++;
+                    continue;
+                }
+
+                variation.setMetadataFingerprint(fingerprint);
+                try {
+                    productVariationRepo.saveAndFlush(variation);
+                    filled++;
+                } catch (DataIntegrityViolationException e) {
+                    log.warn("Variation {} lost a fingerprint race, leaving it for the next run", variation.getId());
+                    duplicates++;
+                }
+            }
+        } while (batch.size() == batchSize);
+
+        if (filled > 0 || duplicates > 0) {
+            log.info("Backfilled {} variation fingerprints ({} duplicates skipped) in {} ms",
+                    filled, duplicates, System.currentTimeMillis() - start);
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,192 @@
+package com.shopperspoint.catalog;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+public final class VariationMetadata {
+
+    // callers validate against the category's allowed values first; the cap still bounds what stored rows can pin
+    private static final int POOL_LIMIT = 16_384;
+    private static final Map<String, String> POOL = new ConcurrentHashMap<>();
+
+    public static final VariationMetadata EMPTY = new VariationMetadata(new String[0], new String[0]);
+
+    private final String[] keys;
+    private final String[] values;
+    private final int hash;
+    private Map<String, String> view;
+
+    private VariationMetadata(String[] keys, String[] values) {
+        this.keys = keys;
+        this.values = values;
+        this.hash = 31 * Arrays.hashCode(keys) + Arrays.hashCode(values);
+    }
+
+    public static VariationMetadata of(Map<String, String> metadata) {
+        if (metadata == null || metadata.isEmpty()) {
+            return EMPTY;
+        }
+
+        TreeMap<String, String> sorted = new TreeMap<>();
+        metadata.forEach((key, value) -> {
+            if (key != null && value != null) {
+                sorted.put(key, value);
+            }
+        });
+
+        String[] keys = new String[sorted.size()];
+        String[] values = new String[sorted.size()];
+        int i = 0;
+        for (Map.Entry<String, String> entry : sorted.entrySet()) {
+            keys[i] = intern(entry.getKey());
+            values[i] = intern(entry.getValue());
+            i++;
+        }
+        return new VariationMetadata(keys, values);
+    }
+
+    private static String intern(String value) {
+        String pooled = POOL.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (POOL.size() >= POOL_LIMIT) {
+            return value;
+        }
+        pooled = POOL.putIfAbsent(value, value);
+        return pooled == null ? value : pooled;
+    }
+
+
+    public String get(String key) {
+        int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? values[index] : null;
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public boolean isEmpty() {
+        return keys.length == 0;
+    }
+
+    public void forEach(BiConsumer<String, String> action) {
+        for (int i = 0; i < keys.length; i++) {
+            action.accept(keys[i], values[i]);
+        }
+    }
+
+    public VariationMetadata toLowerCase() {
+        for (int i = 0; i < keys.length; i++) {
+            if (!keys[i].equals(keys[i].toLowerCase()) || !values[i].equals(values[i].toLowerCase())) {
+                Map<String, String> lowered = new HashMap<>();
+                forEach((key, value) -> lowered.put(key.toLowerCase(), value.toLowerCase()));
+                return of(lowered);
+            }
+        }
+        return this;
+    }
+
+    // sha-256 over the sorted, lowercased pairs; length prefixes keep "a=bc" and "ab=c" apart
+    public String fingerprint() {
+        VariationMetadata lowered = toLowerCase();
+        StringBuilder canonical = new StringBuilder();
+        lowered.forEach((key, value) -> canonical
+                .append(key.length()).append(':').append(key)
+                .append(value.length()).append(':').append(value));
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public Map<String, String> asMap() {
+        Map<String, String> current = view;
+        if (current == null) {
+            current = new ArrayMap();
+            view = current;
+        }
+        return current;
+    }
+
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof VariationMetadata metadata) || hash != metadata.hash) {
+            return false;
+        }
+        return Arrays.equals(keys, metadata.keys) && Arrays.equals(values, metadata.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return asMap().toString();
+    }
+
+
+    private final class ArrayMap extends AbstractMap<String, String> {
+
+        @Override
+        public String get(Object key) {
+            return key instanceof String name ? VariationMetadata.this.get(name) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return keys.length;
+        }
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new Iterator<>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < keys.length;
+                        }
+
+                        @Override
+                        public Entry<String, String> next() {
+                            if (index >= keys.length) {
+                                throw new NoSuchElementException();
+                            }
+                            Entry<String, String> entry = new SimpleImmutableEntry<>(keys[index], values[index]);
+                            index++;
+                            return entry;
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return keys.length;
+                }
+            };
+        }
+    }
+}
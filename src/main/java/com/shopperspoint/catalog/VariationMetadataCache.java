@@ -0,0 +1,82 @@
+package com.shopperspoint.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.shopperspoint.entity.ProductVariation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Component
+public class VariationMetadataCache {
+
+    private static final TypeReference<Map<String, String>> METADATA_TYPE = new TypeReference<>() {
+    };
+
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+    private final Map<Long, CachedMetadata> entries;
+
+    @Autowired
+    public VariationMetadataCache(ObjectMapper objectMapper,
+                                  @Value("${variation.metadata.cache.size:10000}") int maxEntries) {
+        this.reader = objectMapper.readerFor(METADATA_TYPE);
+        this.writer = objectMapper.writerFor(METADATA_TYPE);
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedMetadata> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+
+    public VariationMetadata get(ProductVariation variation) throws JsonProcessingException {
+        return get(variation.getId(), variation.getMetaData());
+    }
+
+    // the stored json doubles as the version: an updated variation misses and is parsed again
+    public VariationMetadata get(Long variationId, String json) throws JsonProcessingException {
+        if (variationId == null) {
+            return parse(json);
+        }
+
+        CachedMetadata cached;
+        synchronized (entries) {
+            cached = entries.get(variationId);
+        }
+        if (cached != null && cached.json().equals(json)) {
+            return cached.metadata();
+        }
+
+        VariationMetadata metadata = parse(json);
+        if (json != null) {
+            synchronized (entries) {
+                entries.put(variationId, new CachedMetadata(json, metadata));
+            }
+        }
+        return metadata;
+    }
+
+    public VariationMetadata parse(String json) throws JsonProcessingException {
+        if (json == null || json.isBlank()) {
+            return VariationMetadata.EMPTY;
+        }
+        Map<String, String> parsed = reader.readValue(json);
+        return VariationMetadata.of(parsed);
+    }
+
+    public String write(Map<String, String> metadata) throws JsonProcessingException {
+        return writer.writeValueAsString(metadata);
+    }
+
+
+    private record CachedMetadata(String json, VariationMetadata metadata) {
+    }
+}
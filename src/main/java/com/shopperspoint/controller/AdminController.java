@@ -1,6 +1,11 @@
 package com.shopperspoint.controller;
 
 import com.shopperspoint.dto.*;
+import com.shopperspoint.email.EmailDispatcher;
+import com.shopperspoint.image.ImageDerivativeService;
+import com.shopperspoint.image.ImageStorageService;
+import com.shopperspoint.jwt.TokenRevocationCache;
+import com.shopperspoint.security.PasswordHashingExecutor;
 import com.shopperspoint.service.*;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,16 +27,29 @@ public class AdminController {
     private final SellerService sellerService;
     private final UserActivationService userActivationService;
     private final ProductService productService;
+    private final TokenRevocationCache tokenRevocationCache;
+    private final PasswordHashingExecutor passwordHashingExecutor;
+    private final EmailDispatcher emailDispatcher;
+    private final ImageStorageService imageStorageService;
+    private final ImageDerivativeService imageDerivativeService;
 
     @Autowired
     public AdminController(CategoryService categoryService, MetadataFieldService metadataFieldService, CustomerService customerService,
-                           SellerService sellerService, UserActivationService userActivationService, ProductService productService) {
+                           SellerService sellerService, UserActivationService userActivationService, ProductService productService,
+                           TokenRevocationCache tokenRevocationCache, PasswordHashingExecutor passwordHashingExecutor,
+                           EmailDispatcher emailDispatcher, ImageStorageService imageStorageService,
+                           ImageDerivativeService imageDerivativeService) {
         this.categoryService = categoryService;
         this.metadataFieldService = metadataFieldService;
         this.customerService = customerService;
         this.sellerService = sellerService;
         this.userActivationService = userActivationService;
         this.productService = productService;
+        this.tokenRevocationCache = tokenRevocationCache;
+        this.passwordHashingExecutor = passwordHashingExecutor;
+        this.emailDispatcher = emailDispatcher;
+        this.imageStorageService = imageStorageService;
+        this.imageDerivativeService = imageDerivativeService;
     }
 
 
@@ -45,6 +63,16 @@ public class AdminController {
         return customerService.getAllCustomer(page, size, sort, email);
     }
 
+    @GetMapping(value = "/customers", params = "cursor")
+    public CursorPageDTO<CustomerResponseDTO> scrollCustomers(
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String cursor
+    ) {
+        return customerService.getAllCustomer(size, sort, email, cursor);
+    }
+
     @GetMapping("/sellers")
     public List<SellerResponseDTO> getAllSeller(
             @RequestParam(defaultValue = "0") int page,
@@ -55,6 +83,16 @@ public class AdminController {
         return sellerService.getAllSellers(page, size, sort, email);
     }
 
+    @GetMapping(value = "/sellers", params = "cursor")
+    public CursorPageDTO<SellerResponseDTO> scrollSellers(
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String cursor
+    ) {
+        return sellerService.getAllSellers(size, sort, email, cursor);
+    }
+
     @PatchMapping("/activate/customer")
     public ResponseEntity<GenericResponse> activateCustomerById(@RequestParam Long id) {
         return ResponseEntity.ok(userActivationService.activateCustomer(id));
@@ -115,6 +153,17 @@ public class AdminController {
         return categoryService.getAllCategories(page, size, sort, order, filter);
     }
 
+    @GetMapping(value = "/all/categories", params = "cursor")
+    public CursorPageDTO<CategoryResponseDTO> scrollCategories(
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(defaultValue = "") String filter,
+            @RequestParam(required = false) String cursor
+    ) {
+        return categoryService.getAllCategories(size, sort, order, filter, cursor);
+    }
+
     @GetMapping("/category/{id}")
     public CategoryResponseDTO viewCategory(@PathVariable(name = "id") Long id) {
         return categoryService.viewCategory(id);
@@ -154,5 +203,56 @@ public class AdminController {
 
     }
 
+    @GetMapping(value = "/products", params = "cursor")
+    public CursorPageDTO<ProductViewDTO> scrollProducts(
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(required = false) String filter,
+            @RequestParam(required = false) String cursor
+    ) {
+        return productService.viewAllProductsByAdmin(size, sort, order, filter, cursor);
+    }
+
+    @PostMapping("/products/search/reindex")
+    public ResponseEntity<GenericResponse> rebuildProductSearchIndex() {
+        return productService.rebuildSearchIndex();
+    }
+
+    @GetMapping("/tokens/revocation/stats")
+    public TokenRevocationStatsDTO tokenRevocationStats() {
+        return tokenRevocationCache.stats();
+    }
+
+    @GetMapping("/login/hashing/stats")
+    public PasswordHashingStatsDTO passwordHashingStats() {
+        return passwordHashingExecutor.stats();
+    }
+
+    @GetMapping("/email/stats")
+    public EmailDispatchStatsDTO emailDispatchStats() {
+        return emailDispatcher.stats();
+    }
+
+    @GetMapping("/images/storage/stats")
+    public ImageStorageStatsDTO imageStorageStats() {
+        return imageStorageService.stats();
+    }
+
+    @GetMapping("/images/derivatives/stats")
+    public ImageDerivativeStatsDTO imageDerivativeStats() {
+        return imageDerivativeService.stats();
+    }
+
+    @PostMapping("/images/derivatives/backfill")
+    public ResponseEntity<GenericResponse> backfillImageDerivatives() {
+        String result = imageDerivativeService.startBackfill()
+                ? "Image derivative backfill started"
+                : "Image derivative backfill is already running";
+        return ResponseEntity
+                .status(HttpStatus.ACCEPTED)
+                .body(new GenericResponse(result, "SUCCESS", LocalDateTime.now()));
+    }
+
 
 }
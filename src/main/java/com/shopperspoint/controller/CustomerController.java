@@ -123,6 +123,17 @@ public class CustomerController {
         return productService.viewAllProductsByCustomer(page, size, sort, order, query, categoryId);
     }
 
+    @GetMapping(value = "/products", params = "cursor")
+    public CursorPageDTO<ProductViewDTO> scrollProducts(
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(required = false) String query,
+            @RequestParam Long categoryId,
+            @RequestParam(required = false) String cursor) {
+        return productService.viewAllProductsByCustomer(size, sort, order, query, categoryId, cursor);
+    }
+
     @GetMapping("/products/similar")
     public List<ProductViewDTO> viewAllSimilarProducts(
             @RequestParam(defaultValue = "0") int page,
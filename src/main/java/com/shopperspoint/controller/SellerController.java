@@ -107,8 +107,20 @@ public class SellerController {
         return productService.viewAllProductOfSeller(page, size, sort, order, query, request);
     }
 
+    @GetMapping(value = "/products", params = "cursor")
+    public CursorPageDTO<ProductResponseDTO> scrollProducts(
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "name") String sort,
+            @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(required = false) String query,
+            @RequestParam(required = false) String cursor,
+            HttpServletRequest request
+    ) {
+        return productService.viewAllProductOfSeller(size, sort, order, query, cursor, request);
+    }
+
     @PostMapping("/product/variation")
-    public ResponseEntity<GenericResponse> addProductVariation(@Valid @ModelAttribute ProductVariationRequestDTO productVariationRequestDTO, HttpServletRequest request) {
+    public ResponseEntity<VariationSaveResponseDTO> addProductVariation(@Valid @ModelAttribute ProductVariationRequestDTO productVariationRequestDTO, HttpServletRequest request) {
         return productService.addProductVariation(productVariationRequestDTO, request);
     }
 
@@ -132,9 +144,22 @@ public class SellerController {
         return productService.getVariationsForProduct(page, size, sort, order, query, productId, request);
     }
 
+    @GetMapping(value = "/product/variations", params = "cursor")
+    public CursorPageDTO<ProductVariationResponseDTO> scrollVariationsOfProduct(
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(required = false) String query,
+            @RequestParam Long productId,
+            @RequestParam(required = false) String cursor,
+            HttpServletRequest request
+    ) {
+        return productService.getVariationsForProduct(size, sort, order, query, productId, cursor, request);
+    }
+
 
     @PutMapping("/product/variation")
-    public ResponseEntity<GenericResponse> updateProductVariation(@RequestParam Long variationId, @Valid @ModelAttribute ProductVariationUpdateDTO variationUpdateDTO, HttpServletRequest request) {
+    public ResponseEntity<VariationSaveResponseDTO> updateProductVariation(@RequestParam Long variationId, @Valid @ModelAttribute ProductVariationUpdateDTO variationUpdateDTO, HttpServletRequest request) {
         return productService.updateProductVariation(variationId, variationUpdateDTO, request);
     }
 
@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Getter
@@ -20,5 +21,8 @@ public class CategoryFilterResponseDTO {
     private List<MetadataFieldWithIdDTO> metadataFieldValues;
     private Double minPrice;
     private Double maxPrice;
+
+    private Map<String, Integer> brandCounts;
+    private Map<String, Map<String, Integer>> metadataValueCounts;
 }
 
@@ -0,0 +1,19 @@
+package com.shopperspoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailDispatchStatsDTO {
+
+    private long pending;
+    private long failed;
+    private long sent;
+    private long retried;
+    private long batches;
+    private double averageSendMillis;
+    private double maxSendMillis;
+}
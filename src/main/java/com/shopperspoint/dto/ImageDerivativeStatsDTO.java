@@ -0,0 +1,19 @@
+package com.shopperspoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageDerivativeStatsDTO {
+
+    private int queued;
+    private int inFlight;
+    private long generated;
+    private long unsupported;
+    private long failed;
+    private long dropped;
+    private double averageMillis;
+}
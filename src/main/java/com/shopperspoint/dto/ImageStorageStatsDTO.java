@@ -0,0 +1,17 @@
+package com.shopperspoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageStorageStatsDTO {
+
+    private long mappedImages;
+    private long stored;
+    private long deduplicated;
+    private long released;
+    private long pendingReleases;
+}
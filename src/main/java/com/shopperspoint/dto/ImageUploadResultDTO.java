@@ -0,0 +1,20 @@
+package com.shopperspoint.dto;
+
+import com.shopperspoint.enums.ImageUploadStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageUploadResultDTO {
+
+    private String fileName;
+    private String type;
+    private int slot;
+    private ImageUploadStatus status;
+    private String imageUrl;
+    private String error;
+    private long elapsedMillis;
+}
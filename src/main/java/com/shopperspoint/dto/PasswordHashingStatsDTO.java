@@ -0,0 +1,23 @@
+package com.shopperspoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PasswordHashingStatsDTO {
+
+    private int threads;
+    private int queueCapacity;
+    private int queued;
+    private int active;
+    private long completed;
+    private long rejected;
+    private long timedOut;
+    private double averageQueueWaitMillis;
+    private double maxQueueWaitMillis;
+    private double averageHashMillis;
+    private double maxHashMillis;
+}
@@ -19,4 +19,6 @@ public class ProductViewDTO {
     private Boolean isReturnable;
     private CategoryViewResponseDTO category;
     private List<String> primaryImageUrl;
+    private List<String> thumbnailUrl;
+    private List<String> webImageUrl;
 }
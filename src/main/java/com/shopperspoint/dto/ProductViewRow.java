@@ -0,0 +1,17 @@
+package com.shopperspoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ProductViewRow {
+    private Long id;
+    private String name;
+    private String brand;
+    private String description;
+    private Boolean isCancellable;
+    private Boolean isReturnable;
+    private Long categoryId;
+    private String categoryName;
+}
@@ -0,0 +1,14 @@
+package com.shopperspoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class StoredImageKeyRow {
+    private String ownerType;
+    private Long ownerId;
+    private String contentHash;
+    private String extension;
+    private boolean derivativesReady;
+}
@@ -0,0 +1,19 @@
+package com.shopperspoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocationStatsDTO {
+
+    private long filterBits;
+    private int hashFunctions;
+    private long indexedTokens;
+    private int recentRevocations;
+    private long hits;
+    private long misses;
+    private long falsePositives;
+}
@@ -1,8 +1,13 @@
 package com.shopperspoint.dto;
 
+import com.shopperspoint.entity.Customer;
+import com.shopperspoint.entity.Seller;
 import com.shopperspoint.entity.User;
+import com.shopperspoint.exceptionhandler.AccessDeniedException;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Set;
@@ -10,32 +15,80 @@ import java.util.stream.Collectors;
 
 public class UserPrinciple implements UserDetails {
 
-    private final User user;
+    public enum Type {
+        ADMIN, SELLER, CUSTOMER
+    }
+
+    private final Long id;
+    private final String email;
+    private final String password;
+    private final Type type;
+    private final Set<GrantedAuthority> authorities;
+    private final boolean locked;
+    private final boolean active;
 
+    // copies what security needs so the principal can outlive the persistence context it was loaded in
     public UserPrinciple(User user) {
-        this.user = user;
+        this(user.getId(), user.getEmail(), user.getPassword(), typeOf(user),
+                user.getRoles().stream()
+                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getAuthority()))
+                        .collect(Collectors.toUnmodifiableSet()),
+                Boolean.TRUE.equals(user.getIsLocked()),
+                Boolean.TRUE.equals(user.getIsActive()));
+    }
+
+    private UserPrinciple(Long id, String email, String password, Type type, Set<GrantedAuthority> authorities,
+                          boolean locked, boolean active) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.type = type;
+        this.authorities = authorities;
+        this.locked = locked;
+        this.active = active;
+    }
+
+    private static Type typeOf(User user) {
+        if (user instanceof Seller) {
+            return Type.SELLER;
+        }
+        return user instanceof Customer ? Type.CUSTOMER : Type.ADMIN;
+    }
+
+    public static UserPrinciple current() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrinciple userPrinciple) {
+            return userPrinciple;
+        }
+        throw new AccessDeniedException("Invalid token");
+    }
+
+    public UserPrinciple withoutPassword() {
+        return new UserPrinciple(id, email, null, type, authorities, locked, active);
     }
 
     public Long getId() {
-        return user.getId();
+        return id;
+    }
+
+    public Type getType() {
+        return type;
     }
 
     @Override
     public Set<GrantedAuthority> getAuthorities() {
-        return user.getRoles().stream()
-                .map(role -> new SimpleGrantedAuthority("ROLE_" + role.getAuthority()))
-                .collect(Collectors.toSet());
+        return authorities;
     }
 
 
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getEmail();
+        return email;
     }
 
     @Override
@@ -45,7 +98,7 @@ public class UserPrinciple implements UserDetails {
 
     @Override
     public boolean isAccountNonLocked() {
-        return !user.getIsLocked();
+        return !locked;
     }
 
     @Override
@@ -55,6 +108,6 @@ public class UserPrinciple implements UserDetails {
 
     @Override
     public boolean isEnabled() {
-        return !user.getIsActive();
+        return !active;
     }
 }
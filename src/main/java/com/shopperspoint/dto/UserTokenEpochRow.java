@@ -0,0 +1,11 @@
+package com.shopperspoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserTokenEpochRow {
+    private Long userId;
+    private Long tokenEpoch;
+}
@@ -0,0 +1,12 @@
+package com.shopperspoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class VariationImageRow {
+    private Long productId;
+    private Long variationId;
+    private String primaryImageName;
+}
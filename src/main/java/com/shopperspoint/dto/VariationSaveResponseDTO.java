@@ -0,0 +1,20 @@
+package com.shopperspoint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class VariationSaveResponseDTO {
+
+    private String message;
+    private String status;
+    private LocalDateTime timestamp;
+    private Long variationId;
+    private List<ImageUploadResultDTO> images;
+}
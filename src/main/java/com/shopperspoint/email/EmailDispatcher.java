@@ -0,0 +1,241 @@
+package com.shopperspoint.email;
+
+import com.shopperspoint.dto.EmailDispatchStatsDTO;
+import com.shopperspoint.entity.EmailOutbox;
+import com.shopperspoint.enums.EmailStatus;
+import com.shopperspoint.repository.EmailOutboxRepo;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@Slf4j
+public class EmailDispatcher {
+
+    private static final long MAX_BACKOFF_MILLIS = 60 * 60 * 1000;
+
+    private final EmailOutboxRepo emailOutboxRepo;
+    private final JavaMailSender mailSender;
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long sendingTimeoutMillis;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder sendCount = new LongAdder();
+    private final LongAdder sendNanos = new LongAdder();
+    private final LongAccumulator maxSendNanos = new LongAccumulator(Math::max, 0);
+
+    @Autowired
+    public EmailDispatcher(EmailOutboxRepo emailOutboxRepo, JavaMailSender mailSender,
+                           @Value("${email.dispatch.workers:2}") int workerCount,
+                           @Value("${email.dispatch.batch.size:50}") int batchSize,
+                           @Value("${email.dispatch.max.attempts:5}") int maxAttempts,
+                           @Value("${email.dispatch.backoff.ms:30000}") long backoffMillis,
+                           @Value("${email.dispatch.sending.timeout.ms:600000}") long sendingTimeoutMillis) {
+        AtomicInteger sequence = new AtomicInteger();
+        this.emailOutboxRepo = emailOutboxRepo;
+        this.mailSender = mailSender;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.sendingTimeoutMillis = sendingTimeoutMillis;
+        this.workers = Executors.newFixedThreadPool(workerCount, runnable -> {
+            Thread thread = new Thread(runnable, "email-dispatch-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+
+    // a claim whose slice never reported back, e.g. its final saveAll failed or its instance died, is retried
+    // once its lease times out; other instances' live claims are left alone
+    @Scheduled(fixedDelayString = "${email.dispatch.sending.timeout.ms:600000}")
+    public void requeueAbandoned() {
+        int requeued = emailOutboxRepo.updateStatusBefore(EmailStatus.SENDING, EmailStatus.PENDING, LocalDateTime.now());
+        if (requeued > 0) {
+            log.warn("Re-queued {} emails whose send was abandoned", requeued);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${email.dispatch.interval.ms:2000}")
+    public void dispatch() {
+        List<EmailOutbox> due = emailOutboxRepo.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                EmailStatus.PENDING, LocalDateTime.now(), Limit.of(batchSize));
+        if (due.isEmpty()) {
+            return;
+        }
+
+        // only rows this poll actually moved to SENDING are sent, another instance may have claimed the rest
+        String claimToken = UUID.randomUUID().toString();
+        int claimed = emailOutboxRepo.claim(due.stream().map(EmailOutbox::getId).toList(), EmailStatus.PENDING,
+                EmailStatus.SENDING, claimToken, LocalDateTime.now().plusNanos(sendingTimeoutMillis * 1_000_000));
+        if (claimed == 0) {
+            return;
+        }
+        if (claimed < due.size()) {
+            due = emailOutboxRepo.findByClaimTokenAndStatus(claimToken, EmailStatus.SENDING);
+            if (due.isEmpty()) {
+                return;
+            }
+        }
+
+        // one smtp connection per worker slice; the next poll waits until every slice is done
+        int sliceSize = (due.size() + workerCount - 1) / workerCount;
+        List<Callable<Void>> slices = new ArrayList<>();
+        for (int from = 0; from < due.size(); from += sliceSize) {
+            List<EmailOutbox> slice = due.subList(from, Math.min(due.size(), from + sliceSize));
+            slices.add(() -> {
+                try {
+                    send(slice);
+                } catch (RuntimeException e) {
+                    requeue(slice, e);
+                }
+                return null;
+            });
+        }
+
+        try {
+            for (Future<Void> result : workers.invokeAll(slices)) {
+                result.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Email dispatch worker failed: {}", e.getCause().getMessage());
+        }
+    }
+
+    private void send(List<EmailOutbox> slice) {
+        Map<MimeMessage, EmailOutbox> messages = new IdentityHashMap<>();
+        Map<EmailOutbox, String> failures = new IdentityHashMap<>();
+
+        for (EmailOutbox email : slice) {
+            try {
+                MimeMessage message = mailSender.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, true);
+                helper.setTo(email.getRecipient());
+                helper.setSubject(email.getSubject());
+                helper.setText(email.getBody(), true);
+                messages.put(message, email);
+            } catch (MessagingException e) {
+                failures.put(email, e.getMessage());
+            }
+        }
+
+        long start = System.nanoTime();
+        try {
+            if (!messages.isEmpty()) {
+                mailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            }
+        } catch (MailSendException e) {
+            e.getFailedMessages().forEach((message, cause) -> {
+                EmailOutbox email = messages.get(message);
+                if (email != null) {
+                    failures.put(email, cause.getMessage());
+                }
+            });
+            if (e.getFailedMessages().isEmpty()) {
+                messages.values().forEach(email -> failures.put(email, e.getMessage()));
+            }
+        } catch (MailException e) {
+            messages.values().forEach(email -> failures.put(email, e.getMessage()));
+        }
+
+        if (!messages.isEmpty()) {
+            long perMessage = (System.nanoTime() - start) / messages.size();
+            sendCount.add(messages.size());
+            sendNanos.add(perMessage * messages.size());
+            maxSendNanos.accumulate(perMessage);
+        }
+        batches.increment();
+
+        LocalDateTime now = LocalDateTime.now();
+        for (EmailOutbox email : slice) {
+            String error = failures.get(email);
+            if (error == null) {
+                email.setStatus(EmailStatus.SENT);
+                email.setSentAt(now);
+                sent.increment();
+            } else {
+                fail(email, error, now);
+            }
+        }
+        emailOutboxRepo.saveAll(slice);
+    }
+
+    // anything but a mail error, e.g. the final saveAll, puts the slice back with backoff;
+    // if even that write fails the rows stay SENDING until requeueAbandoned picks them up
+    private void requeue(List<EmailOutbox> slice, RuntimeException cause) {
+        log.error("Email dispatch slice of {} failed, re-queueing: {}", slice.size(), cause.getMessage());
+        LocalDateTime now = LocalDateTime.now();
+        for (EmailOutbox email : slice) {
+            if (email.getStatus() != EmailStatus.FAILED) {
+                fail(email, cause.getMessage(), now);
+            }
+        }
+        try {
+            emailOutboxRepo.saveAll(slice);
+        } catch (RuntimeException e) {
+            log.error("Could not re-queue {} emails, leaving them to the abandoned-send check: {}", slice.size(), e.getMessage());
+        }
+    }
+
+    private void fail(EmailOutbox email, String error, LocalDateTime now) {
+        int attempts = email.getAttempts() + 1;
+        email.setAttempts(attempts);
+        email.setLastError(error != null && error.length() > 500 ? error.substring(0, 500) : error);
+
+        if (attempts >= maxAttempts) {
+            email.setStatus(EmailStatus.FAILED);
+            log.error("Giving up on email {} to {} after {} attempts: {}", email.getId(), email.getRecipient(), attempts, error);
+            return;
+        }
+
+        long delay = Math.min(MAX_BACKOFF_MILLIS, backoffMillis << Math.min(attempts - 1, 20));
+        email.setStatus(EmailStatus.PENDING);
+        email.setNextAttemptAt(now.plusNanos(delay * 1_000_000));
+        retried.increment();
+        log.warn("Email {} to {} failed, retrying in {} ms: {}", email.getId(), email.getRecipient(), delay, error);
+    }
+
+    public EmailDispatchStatsDTO stats() {
+        long attempted = sendCount.sum();
+        return new EmailDispatchStatsDTO(
+                emailOutboxRepo.countByStatus(EmailStatus.PENDING),
+                emailOutboxRepo.countByStatus(EmailStatus.FAILED),
+                sent.sum(),
+                retried.sum(),
+                batches.sum(),
+                attempted == 0 ? 0 : sendNanos.sum() / 1e6 / attempted,
+                maxSendNanos.get() / 1e6
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
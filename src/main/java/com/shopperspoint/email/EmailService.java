@@ -1,264 +1,119 @@
 package com.shopperspoint.email;
 
+import com.shopperspoint.entity.EmailOutbox;
 import com.shopperspoint.entity.Product;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
-import lombok.AllArgsConstructor;
+import com.shopperspoint.enums.EmailStatus;
+import com.shopperspoint.repository.EmailOutboxRepo;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.Locale;
+
 @Service
-@AllArgsConstructor
 public class EmailService {
-    @Autowired
-    private final JavaMailSender mailSender;
-
-    @Async
-    public void sendActivationMail(String to, String token) {
-        String activationLink = "http://localhost:8080/user/customer/activate?token=" + token;
-        String subject = "Activate your account";
-
-        String body = "<p>Click the link below to activate your account:</p>"
-                + "<a href='" + activationLink + "'>Activate Now</a>";
-
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body, true);
-            mailSender.send(message);
-
 
-        } catch (MessagingException ex) {
-            throw new RuntimeException("Failed to send activation email");
-        }
+    private final EmailOutboxRepo emailOutboxRepo;
+    private final EmailTemplateRegistry templateRegistry;
 
+    @Autowired
+    public EmailService(EmailOutboxRepo emailOutboxRepo, EmailTemplateRegistry templateRegistry) {
+        this.emailOutboxRepo = emailOutboxRepo;
+        this.templateRegistry = templateRegistry;
     }
 
+    @Value("${email.link.base-url:http://localhost:8080}")
+    private String linkBaseUrl;
 
-    @Async
-    public void sendEmailToSeller(String email) {
-
-        String subject = "Account created";
-        String body = "<p>Account created successfully and waiting for approval</p>";
+    // joins the caller's transaction, so the mail exists exactly when the change that triggered it commits;
+    // EmailDispatcher does the sending
+    private void enqueue(String to, EmailType type, Object... args) {
+        enqueue(to, LocaleContextHolder.getLocale(), type, args);
+    }
 
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper handler = new MimeMessageHelper(message, true);
+    void enqueue(String to, Locale locale, EmailType type, Object... args) {
+        EmailTemplateRegistry.Rendered mail = templateRegistry.render(type, locale, args);
+        emailOutboxRepo.save(new EmailOutbox(to, mail.subject(), mail.body()));
+    }
 
-            handler.setTo(email);
-            handler.setSubject(subject);
-            handler.setText(body, true);
+    // rendered as the single-event mail up front; NotificationAggregator releases it or folds it into a digest
+    void hold(String to, Locale locale, EmailType type, Object[] args, String digestKey, String digestItem) {
+        EmailTemplateRegistry.Rendered mail = templateRegistry.render(type, locale, args);
+        EmailOutbox email = new EmailOutbox(to, mail.subject(), mail.body());
+        email.setStatus(EmailStatus.HELD);
+        email.setDigestKey(digestKey);
+        email.setDigestItem(digestItem);
+        emailOutboxRepo.save(email);
+    }
 
-            mailSender.send(message);
+    public void sendActivationMail(String to, String token) {
+        enqueue(to, EmailType.ACTIVATION, linkBaseUrl + "/user/customer/activate?token=" + token);
+    }
 
-        } catch (MessagingException e) {
-            throw new RuntimeException("Failed to send success email");
-        }
 
+    public void sendEmailToSeller(String email) {
+        enqueue(email, EmailType.SELLER_REGISTERED);
     }
 
-    @Async
     public void sendEmailForAccountLocked(String email) {
-        String subject = "Account Locked";
-        String body = "<p>Account locked due to multiple login attempts." +
-                "Please contact customer support to unlock your account.</p>";
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper handler = new MimeMessageHelper(message, true);
-
-            handler.setTo(email);
-            handler.setSubject(subject);
-            handler.setText(body, true);
-
-            mailSender.send(message);
-
-        } catch (MessagingException e) {
-            throw new RuntimeException("Failed to send success email");
-        }
-
+        enqueue(email, EmailType.ACCOUNT_LOCKED);
     }
 
-    @Async
     public void sendEmailForForgotPassword(String to, String token) {
-        String resetLink = "http://localhost:8080/api/public/user/reset-password?token=" + token;
-        String subject = "Reset your password";
-        String body = "<p>Click the link below to reset your password:</p>"
-                + "<a href='" + resetLink + "'>Reset Password Now</a>";
-
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body, true);
-            mailSender.send(message);
-
-        } catch (MessagingException e) {
-            throw new RuntimeException("Failed to send email");
-        }
-
+        enqueue(to, EmailType.FORGOT_PASSWORD, linkBaseUrl + "/api/public/user/reset-password?token=" + token);
     }
 
-    @Async
     public void notifyAccountActivationSuccess(String to) {
-        String subject = "Account activated";
-        String body = "<p>Your account has been successfully activated</p>";
-
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body, true);
-            mailSender.send(message);
-
-
-        } catch (MessagingException ex) {
-            throw new RuntimeException("Failed to send activation email");
-        }
-
+        enqueue(to, EmailType.ACCOUNT_ACTIVATED);
     }
 
 
-    @Async
     public void notifyAccountDeActivation(String to) {
-        String subject = "Account DeActivated";
-        String body = "<p>Your account has been successfully deactivated.</p>";
-
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body, true);
-            mailSender.send(message);
-
-
-        } catch (MessagingException ex) {
-            throw new RuntimeException("Failed to send activation email");
-        }
-
+        enqueue(to, EmailType.ACCOUNT_DEACTIVATED);
     }
 
-    @Async
     public void notifyPasswordChanged(String to) {
-        String subject = "Password Changed";
-        String body = "<p>Your password has been successfully changed.</p>";
-
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body, true);
-            mailSender.send(message);
-
-
-        } catch (MessagingException ex) {
-            throw new RuntimeException("Failed to send activation email");
-        }
-
+        enqueue(to, EmailType.PASSWORD_CHANGED);
     }
 
-    @Async
     public void sendNewProductEmailToAdmin(String to, Product product) {
+        enqueue(to, EmailType.NEW_PRODUCT_FOR_ADMIN, newProductArgs(product));
+    }
 
-        String subject = "New Product Added – Approval Required";
+    public void sendProductStatusUpdateToSeller(String to, Product product, boolean isActive) {
+        Locale locale = LocaleContextHolder.getLocale();
+        enqueue(to, locale, isActive ? EmailType.PRODUCT_ACTIVATED : EmailType.PRODUCT_DEACTIVATED,
+                productStatusArgs(product, isActive, locale));
+    }
 
-        String body = """
-                <html>
-                        <body>
-                            <p>A new product has been added and is waiting for your approval.</p>
-                
-                            <p><strong>Product Details:</strong></p>
-                            <ul>
-                                <li><strong>Name:</strong> %s</li>
-                                <li><strong>Brand:</strong> %s</li>
-                                <li><strong>Category:</strong> %s</li>
-                                <li><strong>Seller:</strong> %s</li>
-                                <li><strong>Company:</strong> %s</li>
-                            </ul>
-                
-                            <p><strong>Action Required:</strong><br/>
-                            This product is currently <strong>inactive</strong> and needs to be approved.</p>
-                        </body>
-                        </html>
-                
-                """.formatted(
+    Object[] newProductArgs(Product product) {
+        return new Object[]{
                 product.getName(),
                 product.getBrand(),
                 product.getCategory().getName(),
                 product.getSeller().getEmail(),
                 product.getSeller().getCompanyName()
-        );
-
-
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body, true);
-            mailSender.send(message);
-
-
-        } catch (MessagingException ex) {
-            throw new RuntimeException("Failed to send activation email");
-        }
-
+        };
     }
 
-    @Async
-    public void sendProductStatusUpdateToSeller(String to, Product product, boolean isActive) {
-
-        String subject = isActive ? "Product Activated" : "Product Deactivated";
-
-        String state = isActive ? "Activated" : "Deactivated";
-        String body = """
-                <p>Hello %s,</p>
-                            <p>Your product has been <strong>%s</strong> by the admin.</p>
-                
-                            <p><strong>Product Details:</strong></p>
-                            <ul>
-                                <li><strong>Name:</strong> %s</li>
-                                <li><strong>Brand:</strong> %s</li>
-                                <li><strong>Category:</strong> %s</li>
-                                <li><strong>Product ID:</strong> %d</li>
-                            </ul>
-                
-                            <p>If you have any questions, please contact our support team.</p>
-                            <p>Thank you,<br/>Admin Team</p>
-                
-                """.formatted(
+    Object[] productStatusArgs(Product product, boolean isActive, Locale locale) {
+        return new Object[]{
                 product.getSeller().getFirstName(),
-                state,
+                stateName(isActive, locale),
                 product.getName(),
                 product.getBrand(),
                 product.getCategory().getName(),
                 product.getId()
+        };
+    }
 
-        );
-
-        try {
-            MimeMessage message = mailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true);
-            helper.setTo(to);
-            helper.setSubject(subject);
-            helper.setText(body, true);
-            mailSender.send(message);
-
-
-        } catch (MessagingException ex) {
-            throw new RuntimeException("Failed to send activation email");
-        }
-
+    String stateName(boolean isActive, Locale locale) {
+        return message(isActive ? "email.product.state.activated" : "email.product.state.deactivated", locale);
+    }
 
+    String message(String key, Locale locale, Object... args) {
+        return templateRegistry.message(key, locale, args);
     }
 
 
@@ -0,0 +1,90 @@
+package com.shopperspoint.email;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class EmailTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(1024));
+
+    // literals[i] is followed by args[slots[i]]; the last literal has no slot after it
+    private final String[] literals;
+    private final int[] slots;
+
+    private EmailTemplate(String[] literals, int[] slots) {
+        this.literals = literals;
+        this.slots = slots;
+    }
+
+    public static EmailTemplate compile(String source, String[] parameters) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+
+        int from = 0;
+        int open;
+        while ((open = source.indexOf(OPEN, from)) >= 0) {
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at offset " + open);
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            literals.add(source.substring(from, open));
+            slots.add(indexOf(parameters, name));
+            from = close + CLOSE.length();
+        }
+        literals.add(source.substring(from));
+
+        return new EmailTemplate(literals.toArray(new String[0]), slots.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private static int indexOf(String[] parameters, String name) {
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown placeholder: " + name);
+    }
+
+    public String render(Object... args) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            appendEscaped(out, args[slots[i]]);
+        }
+        out.append(literals[slots.length]);
+
+        String body = out.toString();
+        if (out.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return body;
+    }
+
+    private static void appendEscaped(StringBuilder out, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (value instanceof Long number) {
+            out.append(number.longValue());
+            return;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.shopperspoint.email;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+@Component
+@Slf4j
+public class EmailTemplateRegistry {
+
+    private static final String LOCATION = "classpath*:templates/email/*.html";
+    private static final String DEFAULT_LANGUAGE = "";
+
+    private final MessageSource messageSource;
+
+    // type -> language -> compiled body; "" holds the default template every type must have
+    private final Map<EmailType, Map<String, EmailTemplate>> templates = new EnumMap<>(EmailType.class);
+
+    @Autowired
+    public EmailTemplateRegistry(MessageSource messageSource) {
+        this.messageSource = messageSource;
+    }
+
+    @PostConstruct
+    public void load() throws IOException {
+        long start = System.currentTimeMillis();
+
+        // template name -> language -> source, from files like "activation.html" and "activation_de.html"
+        Map<String, Map<String, String>> sources = new HashMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            String fileName = resource.getFilename();
+            if (fileName == null) {
+                continue;
+            }
+            String name = fileName.substring(0, fileName.length() - ".html".length());
+            String language = DEFAULT_LANGUAGE;
+            int underscore = name.lastIndexOf('_');
+            if (underscore > 0) {
+                language = name.substring(underscore + 1);
+                name = name.substring(0, underscore);
+            }
+            try (InputStream in = resource.getInputStream()) {
+                sources.computeIfAbsent(name, key -> new HashMap<>())
+                        .put(language, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+
+        int compiled = 0;
+        for (EmailType type : EmailType.values()) {
+            Map<String, String> variants = sources.get(type.getTemplate());
+            if (variants == null || !variants.containsKey(DEFAULT_LANGUAGE)) {
+                throw new IllegalStateException("Missing email template " + type.getTemplate() + ".html for " + type);
+            }
+            Map<String, EmailTemplate> byLanguage = new HashMap<>();
+            variants.forEach((language, source) -> byLanguage.put(language, EmailTemplate.compile(source, type.getParameters())));
+            templates.put(type, byLanguage);
+            compiled += byLanguage.size();
+        }
+        log.info("Compiled {} email templates in {} ms", compiled, System.currentTimeMillis() - start);
+    }
+
+    public Rendered render(EmailType type, Locale locale, Object... args) {
+        if (args.length != type.getParameters().length) {
+            throw new IllegalArgumentException(type + " expects " + type.getParameters().length + " arguments");
+        }
+        Map<String, EmailTemplate> byLanguage = templates.get(type);
+        EmailTemplate template = byLanguage.getOrDefault(locale.getLanguage(), byLanguage.get(DEFAULT_LANGUAGE));
+
+        // the template arguments double as subject arguments, e.g. {0} is the count of a digest
+        String subject = messageSource.getMessage(type.getSubjectKey(), args, locale);
+        return new Rendered(subject, template.render(args));
+    }
+
+    public String message(String key, Locale locale, Object... args) {
+        return messageSource.getMessage(key, args, locale);
+    }
+
+
+    public record Rendered(String subject, String body) {
+    }
+}
@@ -0,0 +1,33 @@
+package com.shopperspoint.email;
+
+import lombok.Getter;
+
+// a new notification is one constant here plus its file under resources/templates/email
+@Getter
+public enum EmailType {
+    ACTIVATION("activation", "email.activation.subject", "link"),
+    SELLER_REGISTERED("seller-registered", "email.seller.registered.subject"),
+    ACCOUNT_LOCKED("account-locked", "email.account.locked.subject"),
+    FORGOT_PASSWORD("forgot-password", "email.forgot.password.subject", "link"),
+    ACCOUNT_ACTIVATED("account-activated", "email.account.activated.subject"),
+    ACCOUNT_DEACTIVATED("account-deactivated", "email.account.deactivated.subject"),
+    PASSWORD_CHANGED("password-changed", "email.password.changed.subject"),
+    NEW_PRODUCT_FOR_ADMIN("product-added", "email.product.added.subject",
+            "name", "brand", "category", "seller", "company"),
+    PRODUCT_ACTIVATED("product-status", "email.product.activated.subject",
+            "firstName", "state", "name", "brand", "category", "productId"),
+    PRODUCT_DEACTIVATED("product-status", "email.product.deactivated.subject",
+            "firstName", "state", "name", "brand", "category", "productId"),
+    NEW_PRODUCT_DIGEST("product-added-digest", "email.product.added.digest.subject", "count", "items"),
+    PRODUCT_STATUS_DIGEST("product-status-digest", "email.product.status.digest.subject", "count", "state", "items");
+
+    private final String template;
+    private final String subjectKey;
+    private final String[] parameters;
+
+    EmailType(String template, String subjectKey, String... parameters) {
+        this.template = template;
+        this.subjectKey = subjectKey;
+        this.parameters = parameters;
+    }
+}
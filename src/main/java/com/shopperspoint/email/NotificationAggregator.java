@@ -0,0 +1,172 @@
+package com.shopperspoint.email;
+
+import com.shopperspoint.entity.EmailOutbox;
+import com.shopperspoint.entity.Product;
+import com.shopperspoint.enums.EmailStatus;
+import com.shopperspoint.repository.EmailOutboxRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@Slf4j
+public class NotificationAggregator {
+
+    private static final String ITEM_SEPARATOR = " | ";
+    private static final int ITEM_LENGTH = 500;
+    private static final int PAGE_SIZE = 1000;
+
+    private final EmailService emailService;
+    private final EmailOutboxRepo emailOutboxRepo;
+    private final boolean digestEnabled;
+    private final int maxItems;
+
+    private final LongAdder events = new LongAdder();
+    private final LongAdder mails = new LongAdder();
+
+    @Autowired
+    public NotificationAggregator(EmailService emailService, EmailOutboxRepo emailOutboxRepo,
+                                  @Value("${notification.digest.enabled:true}") boolean digestEnabled,
+                                  @Value("${notification.digest.max.items:50}") int maxItems) {
+        this.emailService = emailService;
+        this.emailOutboxRepo = emailOutboxRepo;
+        this.digestEnabled = digestEnabled;
+        this.maxItems = maxItems;
+    }
+
+
+    public void newProductPending(String recipient, Product product) {
+        if (!digestEnabled) {
+            emailService.sendNewProductEmailToAdmin(recipient, product);
+            return;
+        }
+        // captured now: the product's lazy category and seller are gone by the time the window closes
+        Object[] args = emailService.newProductArgs(product);
+        hold(recipient, new DigestKey(EmailType.NEW_PRODUCT_DIGEST, null, LocaleContextHolder.getLocale()),
+                EmailType.NEW_PRODUCT_FOR_ADMIN, args,
+                String.join(ITEM_SEPARATOR, String.valueOf(args[0]), String.valueOf(args[1]),
+                        String.valueOf(args[2]), String.valueOf(args[3])));
+    }
+
+    public void productStatusChanged(String recipient, Product product, boolean isActive) {
+        if (!digestEnabled) {
+            emailService.sendProductStatusUpdateToSeller(recipient, product, isActive);
+            return;
+        }
+        Locale locale = LocaleContextHolder.getLocale();
+        Object[] args = emailService.productStatusArgs(product, isActive, locale);
+        hold(recipient, new DigestKey(EmailType.PRODUCT_STATUS_DIGEST, isActive, locale),
+                isActive ? EmailType.PRODUCT_ACTIVATED : EmailType.PRODUCT_DEACTIVATED, args,
+                "#" + product.getId() + " " + String.join(ITEM_SEPARATOR, String.valueOf(args[2]),
+                        String.valueOf(args[3]), String.valueOf(args[4])));
+    }
+
+    // every event is an outbox row in the caller's transaction, so a crash loses nothing and a rollback sends nothing
+    private void hold(String recipient, DigestKey key, EmailType single, Object[] args, String item) {
+        emailService.hold(recipient, key.locale(), single, args, key.encode(),
+                item.length() > ITEM_LENGTH ? item.substring(0, ITEM_LENGTH) : item);
+        events.increment();
+    }
+
+    // held rows of one recipient and key become a single digest, or are released as they are when alone;
+    // the whole window commits or stays held for the next run, and a shutdown simply leaves them held
+    @Scheduled(fixedDelayString = "${notification.digest.window.ms:300000}",
+            initialDelayString = "${notification.digest.window.ms:300000}")
+    @Transactional
+    public void flush() {
+        Map<Recipient, Digest> digests = new LinkedHashMap<>();
+        long lastId = 0;
+        List<EmailOutbox> page;
+        do {
+            page = emailOutboxRepo.findByStatusAndIdGreaterThanOrderByIdAsc(EmailStatus.HELD, lastId, Limit.of(PAGE_SIZE));
+            for (EmailOutbox held : page) {
+                lastId = held.getId();
+                Digest digest = digests.computeIfAbsent(new Recipient(held.getRecipient(), held.getDigestKey()),
+                        recipient -> new Digest());
+                digest.ids.add(held.getId());
+                if (digest.items.size() < maxItems) {
+                    digest.items.add(held.getDigestItem());
+                }
+            }
+        } while (page.size() == PAGE_SIZE);
+
+        int sent = 0;
+        for (Map.Entry<Recipient, Digest> entry : digests.entrySet()) {
+            if (send(entry.getKey(), entry.getValue())) {
+                sent++;
+            }
+        }
+        if (sent > 0) {
+            mails.add(sent);
+            log.info("Flushed {} notification digests, {} events and {} mails so far", sent, events.sum(), mails.sum());
+        }
+    }
+
+    private boolean send(Recipient recipient, Digest digest) {
+        // a quiet window keeps the detailed single-event mail
+        if (digest.ids.size() == 1) {
+            return emailOutboxRepo.updateStatus(digest.ids, EmailStatus.HELD, EmailStatus.PENDING) == 1;
+        }
+
+        // another instance flushing the same rows wins; this one leaves them alone
+        int deleted = 0;
+        for (int from = 0; from < digest.ids.size(); from += PAGE_SIZE) {
+            deleted += emailOutboxRepo.deleteByIdInAndStatus(
+                    digest.ids.subList(from, Math.min(digest.ids.size(), from + PAGE_SIZE)), EmailStatus.HELD);
+        }
+        if (deleted != digest.ids.size()) {
+            throw new IllegalStateException("Held notifications for " + recipient.email() + " were claimed concurrently");
+        }
+
+        DigestKey key = DigestKey.decode(recipient.digestKey());
+        long count = digest.ids.size();
+        StringBuilder items = new StringBuilder();
+        digest.items.forEach(item -> items.append(item).append('\n'));
+        if (count > digest.items.size()) {
+            items.append(emailService.message("email.digest.more", key.locale(), count - digest.items.size()));
+        }
+
+        if (key.type() == EmailType.PRODUCT_STATUS_DIGEST) {
+            emailService.enqueue(recipient.email(), key.locale(), key.type(), count,
+                    emailService.stateName(key.active(), key.locale()), items.toString());
+        } else {
+            emailService.enqueue(recipient.email(), key.locale(), key.type(), count, items.toString());
+        }
+        return true;
+    }
+
+    public long pendingEvents() {
+        return emailOutboxRepo.countByStatus(EmailStatus.HELD);
+    }
+
+
+    private record Recipient(String email, String digestKey) {
+    }
+
+    // stored on each held row as "TYPE:active:languageTag"
+    private record DigestKey(EmailType type, Boolean active, Locale locale) {
+
+        private String encode() {
+            return type.name() + ":" + active + ":" + locale.toLanguageTag();
+        }
+
+        private static DigestKey decode(String encoded) {
+            String[] parts = encoded.split(":", 3);
+            return new DigestKey(EmailType.valueOf(parts[0]),
+                    "null".equals(parts[1]) ? null : Boolean.valueOf(parts[1]), Locale.forLanguageTag(parts[2]));
+        }
+    }
+
+    private static final class Digest {
+        private final List<Long> ids = new ArrayList<>();
+        private final List<String> items = new ArrayList<>();
+    }
+}
@@ -0,0 +1,39 @@
+package com.shopperspoint.entity;
+
+import com.shopperspoint.key.CategoryClosureKey;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// one row per (ancestor, descendant) pair including each category with itself at depth 0
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "category_closure", indexes = {
+        @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, depth")
+})
+public class CategoryClosure {
+
+    @EmbeddedId
+    private CategoryClosureKey id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("ancestorId")
+    @JoinColumn(name = "ancestor_id")
+    private Category ancestor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("descendantId")
+    @JoinColumn(name = "descendant_id")
+    private Category descendant;
+
+    private int depth;
+
+    public CategoryClosure(Category ancestor, Category descendant, int depth) {
+        this(new CategoryClosureKey(ancestor.getId(), descendant.getId()), ancestor, descendant, depth);
+    }
+}
@@ -0,0 +1,69 @@
+package com.shopperspoint.entity;
+
+import com.shopperspoint.enums.EmailStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "email_outbox", indexes = @Index(name = "idx_email_outbox_status_next_attempt",
+        columnList = "status, next_attempt_at"))
+public class EmailOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(nullable = false)
+    private String recipient;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private EmailStatus status;
+
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    @Column(name = "digest_key", length = 100)
+    private String digestKey;
+
+    @Column(name = "digest_item", length = 500)
+    private String digestItem;
+
+    // set by the dispatcher that moved the row to SENDING, whose next_attempt_at then marks the claim as abandoned
+    @Column(name = "claim_token", length = 36)
+    private String claimToken;
+
+    public EmailOutbox(String recipient, String subject, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        this.recipient = recipient;
+        this.subject = subject;
+        this.body = body;
+        this.status = EmailStatus.PENDING;
+        this.nextAttemptAt = now;
+        this.createdAt = now;
+    }
+}
@@ -14,6 +14,8 @@ import java.util.List;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_product_variation_fingerprint",
+        columnNames = {"product_id", "metadata_fingerprint"}))
 public class ProductVariation extends EntitiesAuditing {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE)
@@ -23,6 +25,9 @@ public class ProductVariation extends EntitiesAuditing {
     @Column(columnDefinition = "json")
     private String metaData;
 
+    @Column(name = "metadata_fingerprint", length = 64)
+    private String metadataFingerprint;
+
     @Column(nullable = false)
     private Integer quantityAvailable;
     @Column(nullable = false)
@@ -0,0 +1,54 @@
+package com.shopperspoint.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Table(name = "stored_image",
+        uniqueConstraints = @UniqueConstraint(name = "uk_stored_image_owner_slot",
+                columnNames = {"owner_type", "owner_id", "slot"}),
+        indexes = @Index(name = "idx_stored_image_content_hash", columnList = "content_hash"))
+public class StoredImage {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column(name = "owner_type", nullable = false, length = 64)
+    private String ownerType;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    // 0 is the primary or profile image, secondary images count up from 1
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, length = 8)
+    private String extension;
+
+    private long size;
+
+    @Column(name = "derivatives_ready", nullable = false)
+    private boolean derivativesReady;
+
+    @Column(nullable = false)
+    private LocalDateTime storedAt;
+
+    public StoredImage(String ownerType, Long ownerId, int slot) {
+        this.ownerType = ownerType;
+        this.ownerId = ownerId;
+        this.slot = slot;
+    }
+}
@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -17,6 +18,7 @@ import java.util.Set;
 @Setter
 @AllArgsConstructor
 @NoArgsConstructor
+@DynamicUpdate
 @Table(name = "app_user")
 @Inheritance(strategy = InheritanceType.JOINED)
 public class User extends EntitiesAuditing {
@@ -47,6 +49,9 @@ public class User extends EntitiesAuditing {
 
     private LocalDateTime passwordUpdatedDate;
 
+    @Column(name = "token_epoch")
+    private Long tokenEpoch = 0L;
+
 
     @OneToMany(mappedBy = "user", cascade = CascadeType.ALL)
     @JsonManagedReference
@@ -0,0 +1,10 @@
+package com.shopperspoint.enums;
+
+public enum EmailStatus {
+    // waiting for its notification digest window, never picked up by the dispatcher
+    HELD,
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED;
+}
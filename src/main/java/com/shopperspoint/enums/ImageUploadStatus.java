@@ -0,0 +1,8 @@
+package com.shopperspoint.enums;
+
+public enum ImageUploadStatus {
+    STORED,
+    FAILED,
+    SKIPPED,
+    ROLLED_BACK;
+}
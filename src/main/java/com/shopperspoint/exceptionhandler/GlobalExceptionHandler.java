@@ -123,4 +123,13 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<ErrorDetails> handleTooManyRequestsException(
+            Exception ex, WebRequest request) throws Exception {
+        ErrorDetails response = new ErrorDetails(error, Arrays.asList(ex.getMessage()), request.getDescription(false));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, "1");
+        return new ResponseEntity<>(response, headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
 }
@@ -0,0 +1,7 @@
+package com.shopperspoint.exceptionhandler;
+
+public class TooManyRequestsException extends RuntimeException{
+    public TooManyRequestsException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,40 @@
+package com.shopperspoint.image;
+
+import lombok.Getter;
+
+@Getter
+public enum ImageDerivative {
+    // largest first: each size is scaled from the one before it
+    WEB("web", 1024),
+    THUMBNAIL("thumb", 240);
+
+    private static final String DIRECTORY = "derivatives";
+    private static final String BLOB_PREFIX = "blobs/";
+
+    private final String name;
+    private final int maxSize;
+
+    ImageDerivative(String name, int maxSize) {
+        this.name = name;
+        this.maxSize = maxSize;
+    }
+
+    // "blobs/ab/cd/<hash>.png" -> "derivatives/thumb/ab/cd/<hash>.png.jpg", so a derivative is as immutable as its blob
+    public String keyFor(String blobKey) {
+        return DIRECTORY + "/" + name + "/" + blobKey.substring(BLOB_PREFIX.length()) + ".jpg";
+    }
+
+    // the blob a blob or derivative key was made from, null for anything else
+    public static String blobKeyOf(String key) {
+        if (key.startsWith(BLOB_PREFIX)) {
+            return key;
+        }
+        for (ImageDerivative derivative : values()) {
+            String prefix = DIRECTORY + "/" + derivative.name + "/";
+            if (key.startsWith(prefix) && key.endsWith(".jpg")) {
+                return BLOB_PREFIX + key.substring(prefix.length(), key.length() - ".jpg".length());
+            }
+        }
+        return null;
+    }
+}
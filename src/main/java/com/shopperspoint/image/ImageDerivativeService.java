@@ -0,0 +1,275 @@
+package com.shopperspoint.image;
+
+import com.shopperspoint.dto.ImageDerivativeStatsDTO;
+import com.shopperspoint.entity.StoredImage;
+import com.shopperspoint.repository.StoredImageRepo;
+import com.shopperspoint.utill.TransactionUtils;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.*;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@Slf4j
+public class ImageDerivativeService {
+
+    private final ImageStorageService imageStorageService;
+    private final StoredImageRepo storedImageRepo;
+    private final ImageManifest imageManifest;
+    private final ThreadPoolExecutor workers;
+    private final ExecutorService backfillRunner;
+    private final float quality;
+    private final int backfillBatchSize;
+
+    // one job per blob at a time; the same bytes uploaded twice are only scaled once
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean backfilling = new AtomicBoolean();
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder unsupported = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder generateNanos = new LongAdder();
+
+    @Autowired
+    public ImageDerivativeService(ImageStorageService imageStorageService, StoredImageRepo storedImageRepo,
+                                  ImageManifest imageManifest,
+                                  @Value("${image.derivative.threads:2}") int threads,
+                                  @Value("${image.derivative.queue:1000}") int queueCapacity,
+                                  @Value("${image.derivative.jpeg.quality:0.82}") float quality,
+                                  @Value("${image.derivative.backfill.batch.size:200}") int backfillBatchSize) {
+        AtomicInteger sequence = new AtomicInteger();
+        this.imageStorageService = imageStorageService;
+        this.storedImageRepo = storedImageRepo;
+        this.imageManifest = imageManifest;
+        this.quality = quality;
+        this.backfillBatchSize = backfillBatchSize;
+        this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            Thread thread = new Thread(runnable, "image-derivative-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+        this.backfillRunner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-derivative-backfill");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // ImageIO's disk cache only adds temp files and copies when reading from and writing to files
+        ImageIO.setUseCache(false);
+    }
+
+
+    // called with the key ImageStorageService.store returned; a full queue leaves the image to the backfill
+    public void generate(String blobKey) {
+        if (blobKey == null || blobKey.indexOf('/') < 0) {
+            return;
+        }
+        TransactionUtils.afterCommit(() -> {
+            if (imageManifest.isDerived(blobKey) || !inFlight.add(blobKey)) {
+                return;
+            }
+            try {
+                workers.execute(() -> process(blobKey));
+            } catch (RejectedExecutionException e) {
+                inFlight.remove(blobKey);
+                dropped.increment();
+                log.warn("Derivative queue full, {} is left for the backfill", blobKey);
+            }
+        });
+    }
+
+    private void process(String blobKey) {
+        long start = System.nanoTime();
+        try {
+            if (derive(blobKey)) {
+                String fileName = blobKey.substring(blobKey.lastIndexOf('/') + 1);
+                int dot = fileName.lastIndexOf('.');
+                storedImageRepo.updateDerivativesReady(fileName.substring(0, dot), fileName.substring(dot), true);
+                imageManifest.markDerived(blobKey, true);
+                generated.increment();
+                generateNanos.add(System.nanoTime() - start);
+            } else {
+                unsupported.increment();
+            }
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.error("Failed to generate derivatives for {}: {}", blobKey, e.getMessage());
+        } finally {
+            inFlight.remove(blobKey);
+        }
+    }
+
+    private boolean derive(String blobKey) throws IOException {
+        ImageDerivative[] derivatives = ImageDerivative.values();
+        BufferedImage current = decode(imageStorageService.resolve(blobKey), derivatives[0].getMaxSize());
+        if (current == null) {
+            // ImageIO has no reader for this format (webp), lists keep serving the original
+            log.debug("No image reader for {}", blobKey);
+            return false;
+        }
+        for (ImageDerivative derivative : derivatives) {
+            current = scale(current, derivative.getMaxSize());
+            write(current, imageStorageService.resolve(derivative.keyFor(blobKey)));
+        }
+        return true;
+    }
+
+    private static BufferedImage decode(Path source, int largestTarget) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(source.toFile())) {
+            if (in == null) {
+                throw new IOException("Image not found: " + source);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(in);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                // subsampling while decoding keeps a 6000px original from being inflated into a 100 MB raster
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, longest / (largestTarget * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage source, int maxSize) {
+        double ratio = Math.min(1.0, (double) maxSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        // halving steps keep bilinear sampling from skipping whole rows on large reductions
+        BufferedImage current = source;
+        while (current.getWidth() / 2 >= width && current.getHeight() / 2 >= height) {
+            current = draw(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        return draw(current, width, height);
+    }
+
+    // always lands on opaque RGB over white, which is what the jpeg writer accepts
+    private static BufferedImage draw(BufferedImage source, int width, int height) {
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void write(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(imageStorageService.getTempDirectory(), "derivative-", ".jpg");
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            Files.createDirectories(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            temp = null;
+        } finally {
+            writer.dispose();
+            if (temp != null) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    public boolean startBackfill() {
+        if (!backfilling.compareAndSet(false, true)) {
+            return false;
+        }
+        backfillRunner.execute(() -> {
+            try {
+                backfill();
+            } finally {
+                backfilling.set(false);
+            }
+        });
+        return true;
+    }
+
+    // walks primary images without derivatives by id; when the live queue is full the backfill thread does the work itself
+    public int backfill() {
+        long start = System.currentTimeMillis();
+        int submitted = 0;
+        long lastId = 0;
+
+        List<StoredImage> batch;
+        do {
+            batch = storedImageRepo.findBySlotAndDerivativesReadyFalseAndIdGreaterThanOrderByIdAsc(
+                    ImageStorageService.PRIMARY_SLOT, lastId, Limit.of(backfillBatchSize));
+            for (StoredImage image : batch) {
+                lastId = image.getId();
+                String blobKey = ImageStorageService.blobKey(image.getContentHash(), image.getExtension());
+                if (imageManifest.isDerived(blobKey) || !inFlight.add(blobKey)) {
+                    continue;
+                }
+                try {
+                    workers.execute(() -> process(blobKey));
+                } catch (RejectedExecutionException e) {
+                    process(blobKey);
+                }
+                submitted++;
+            }
+        } while (batch.size() == backfillBatchSize);
+
+        log.info("Derivative backfill submitted {} images in {} ms", submitted, System.currentTimeMillis() - start);
+        return submitted;
+    }
+
+    public ImageDerivativeStatsDTO stats() {
+        long done = generated.sum();
+        return new ImageDerivativeStatsDTO(
+                workers.getQueue().size(),
+                inFlight.size(),
+                done,
+                unsupported.sum(),
+                failed.sum(),
+                dropped.sum(),
+                done == 0 ? 0 : generateNanos.sum() / 1e6 / done
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        backfillRunner.shutdownNow();
+        workers.shutdown();
+    }
+}
@@ -0,0 +1,170 @@
+package com.shopperspoint.image;
+
+import com.shopperspoint.dto.ImageUploadResultDTO;
+import com.shopperspoint.enums.ImageUploadStatus;
+import com.shopperspoint.exceptionhandler.BadRequestException;
+import com.shopperspoint.utill.ImageUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+@Slf4j
+public class ImageIngestionService {
+
+    private final ImageStorageService imageStorageService;
+    private final int maxConcurrency;
+
+    @Autowired
+    public ImageIngestionService(ImageStorageService imageStorageService,
+                                 @Value("${image.ingestion.max.concurrency:4}") int maxConcurrency) {
+        this.imageStorageService = imageStorageService;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+
+    public static List<ImageUpload> uploads(String primaryType, MultipartFile primaryImage,
+                                            String secondaryType, List<MultipartFile> secondaryImages) {
+        List<ImageUpload> uploads = new ArrayList<>();
+        if (primaryImage != null && !primaryImage.isEmpty()) {
+            uploads.add(new ImageUpload(primaryType, ImageStorageService.PRIMARY_SLOT, primaryImage));
+        }
+        if (secondaryImages != null) {
+            int slot = 1;
+            for (MultipartFile image : secondaryImages) {
+                if (image != null && !image.isEmpty()) {
+                    uploads.add(new ImageUpload(secondaryType, slot, image));
+                }
+                slot++;
+            }
+        }
+        return uploads;
+    }
+
+    // every file is checked before anything is written or saved
+    public void validate(List<ImageUpload> uploads) {
+        for (ImageUpload upload : uploads) {
+            try {
+                ImageStorageService.extensionOf(upload.file());
+            } catch (BadRequestException e) {
+                throw new BadRequestException(e.getMessage() + " (" + upload.file().getOriginalFilename() + ")");
+            }
+        }
+    }
+
+    // files are written to tmp in parallel on virtual threads, at most maxConcurrency at once for this request;
+    // only when all of them made it are they moved into the store and mapped, otherwise every temp file is dropped
+    public Result ingest(Long ownerId, List<ImageUpload> uploads) {
+        if (uploads.isEmpty()) {
+            return new Result(true, List.of(), Map.of());
+        }
+        validate(uploads);
+
+        Semaphore permits = new Semaphore(maxConcurrency);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<Future<Staging>> futures = new ArrayList<>(uploads.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (ImageUpload upload : uploads) {
+                futures.add(executor.submit(() -> stage(upload, permits, failed)));
+            }
+        }
+
+        List<Staging> stagings = new ArrayList<>(uploads.size());
+        for (int i = 0; i < futures.size(); i++) {
+            stagings.add(resultOf(futures.get(i), uploads.get(i)));
+        }
+        boolean succeeded = stagings.stream().allMatch(staging -> staging.staged() != null);
+
+        List<ImageUploadResultDTO> results = new ArrayList<>(stagings.size());
+        Map<String, String> keys = new HashMap<>();
+        for (Staging staging : stagings) {
+            ImageUpload upload = staging.upload();
+            String fileName = upload.file().getOriginalFilename();
+            if (staging.staged() == null) {
+                results.add(new ImageUploadResultDTO(fileName, upload.ownerType(), upload.slot(),
+                        staging.error() == null ? ImageUploadStatus.SKIPPED : ImageUploadStatus.FAILED,
+                        null, staging.error(), staging.elapsedMillis()));
+                continue;
+            }
+            if (!succeeded) {
+                imageStorageService.discard(staging.staged());
+                results.add(new ImageUploadResultDTO(fileName, upload.ownerType(), upload.slot(),
+                        ImageUploadStatus.ROLLED_BACK, null, null, staging.elapsedMillis()));
+                continue;
+            }
+            try {
+                String key = imageStorageService.commit(staging.staged(), upload.ownerType(), ownerId, upload.slot());
+                keys.put(upload.ownerType() + "/" + upload.slot(), key);
+                results.add(new ImageUploadResultDTO(fileName, upload.ownerType(), upload.slot(),
+                        ImageUploadStatus.STORED, ImageUtils.toUrl(upload.ownerType(), key), null,
+                        staging.elapsedMillis()));
+            } catch (IOException | RuntimeException e) {
+                // a rename or mapping failure this late cannot undo the files mapped before it; the rest are dropped
+                succeeded = false;
+                imageStorageService.discard(staging.staged());
+                log.error("Failed to commit image {} for {} {}: {}", fileName, upload.ownerType(), ownerId, e.getMessage());
+                results.add(new ImageUploadResultDTO(fileName, upload.ownerType(), upload.slot(),
+                        ImageUploadStatus.FAILED, null, "Failed to save image", staging.elapsedMillis()));
+            }
+        }
+
+        if (!succeeded) {
+            log.warn("Image upload for owner {} rolled back: {}", ownerId, results.stream()
+                    .filter(result -> result.getStatus() == ImageUploadStatus.FAILED)
+                    .map(ImageUploadResultDTO::getFileName).toList());
+        }
+        return new Result(succeeded, results, keys);
+    }
+
+    private Staging stage(ImageUpload upload, Semaphore permits, AtomicBoolean failed) throws InterruptedException {
+        permits.acquire();
+        long start = System.currentTimeMillis();
+        try {
+            // once one file failed the batch is rolled back anyway, so files still waiting are not written
+            if (failed.get()) {
+                return new Staging(upload, null, null, 0);
+            }
+            StagedImage staged = imageStorageService.stage(upload.file());
+            return new Staging(upload, staged, null, System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            failed.set(true);
+            log.error("Failed to write image {}: {}", upload.file().getOriginalFilename(), e.getMessage());
+            return new Staging(upload, null, "Failed to save image", System.currentTimeMillis() - start);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private static Staging resultOf(Future<Staging> future, ImageUpload upload) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new Staging(upload, null, "Interrupted", 0);
+        } catch (ExecutionException e) {
+            return new Staging(upload, null, "Failed to save image", 0);
+        }
+    }
+
+
+    private record Staging(ImageUpload upload, StagedImage staged, String error, long elapsedMillis) {
+    }
+
+    public record Result(boolean succeeded, List<ImageUploadResultDTO> files, Map<String, String> keys) {
+
+        public String keyFor(String ownerType, int slot) {
+            return keys.get(ownerType + "/" + slot);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.shopperspoint.image;
+
+import com.shopperspoint.repository.StoredImageRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class ImageManifest {
+
+    private final StoredImageRepo storedImageRepo;
+
+    // type -> owner id -> blob key of the primary image, e.g. "product-variation" -> 42 -> "blobs/3f/a2/3fa2...png"
+    private final Map<String, Map<Long, String>> files = new ConcurrentHashMap<>();
+    // blob keys whose web and thumbnail derivatives are on disk
+    private final Set<String> derived = ConcurrentHashMap.newKeySet();
+    // blob keys marked or unmarked before the load, which the loaded snapshot must not undo
+    private final Set<String> derivedBeforeLoad = new HashSet<>();
+    private volatile boolean loaded;
+
+    @Autowired
+    public ImageManifest(StoredImageRepo storedImageRepo) {
+        this.storedImageRepo = storedImageRepo;
+    }
+
+    public String lookup(String type, Long id) {
+        if (id == null) {
+            return null;
+        }
+        Map<Long, String> typeFiles = files.get(type);
+        String key = typeFiles == null ? null : typeFiles.get(id);
+        if (key != null || loaded) {
+            return key;
+        }
+        // until the manifest is loaded a miss may only mean the row has not been read yet
+        key = storedImageRepo.findByOwnerTypeAndOwnerIdAndSlot(type, id, ImageStorageService.PRIMARY_SLOT)
+                .filter(image -> image.getContentHash() != null)
+                .map(image -> ImageStorageService.blobKey(image.getContentHash(), image.getExtension()))
+                .orElse(null);
+        if (key == null) {
+            return null;
+        }
+        String recorded = typeFiles(type).putIfAbsent(id, key);
+        return recorded != null ? recorded : key;
+    }
+
+    public String record(String type, Long id, String fileName) {
+        return typeFiles(type).put(id, fileName);
+    }
+
+    public boolean isDerived(String key) {
+        return derived.contains(key);
+    }
+
+    public void markDerived(String key, boolean ready) {
+        if (!loaded) {
+            synchronized (derivedBeforeLoad) {
+                if (!loaded) {
+                    derivedBeforeLoad.add(key);
+                    apply(key, ready);
+                    return;
+                }
+            }
+        }
+        apply(key, ready);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    public int size() {
+        return files.values().stream().mapToInt(Map::size).sum();
+    }
+
+    // merges a snapshot read from the database; entries recorded while it was read are newer and win
+    public void load(Map<String, Map<Long, String>> loadedFiles, Set<String> loadedDerived) {
+        loadedFiles.forEach((type, snapshot) -> {
+            Map<Long, String> typeFiles = typeFiles(type);
+            snapshot.forEach(typeFiles::putIfAbsent);
+        });
+        synchronized (derivedBeforeLoad) {
+            for (String key : loadedDerived) {
+                if (!derivedBeforeLoad.contains(key)) {
+                    derived.add(key);
+                }
+            }
+            derivedBeforeLoad.clear();
+            loaded = true;
+        }
+    }
+
+    private Map<Long, String> typeFiles(String type) {
+        return files.computeIfAbsent(type, key -> new ConcurrentHashMap<>());
+    }
+
+    private void apply(String key, boolean ready) {
+        if (ready) {
+            derived.add(key);
+        } else {
+            derived.remove(key);
+        }
+    }
+}
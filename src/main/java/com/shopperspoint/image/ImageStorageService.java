@@ -0,0 +1,336 @@
+package com.shopperspoint.image;
+
+import com.shopperspoint.dto.ImageStorageStatsDTO;
+import com.shopperspoint.dto.StoredImageKeyRow;
+import com.shopperspoint.entity.StoredImage;
+import com.shopperspoint.exceptionhandler.BadRequestException;
+import com.shopperspoint.repository.StoredImageRepo;
+import com.shopperspoint.utill.TransactionUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@Slf4j
+public class ImageStorageService {
+
+    public static final int PRIMARY_SLOT = 0;
+
+    private static final String BLOB_DIRECTORY = "blobs";
+    private static final String TEMP_DIRECTORY = "tmp";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int LOCK_STRIPES = 64;
+    private static final List<String> ALLOWED_EXTENSIONS = List.of(".jpg", ".jpeg", ".png", ".bmp", ".webp");
+
+    private final StoredImageRepo storedImageRepo;
+    private final ImageManifest imageManifest;
+    private final Path root;
+    private final Path tempDirectory;
+    private final long orphanGraceMillis;
+
+    // shard directories already on disk, so an upload does not pay for createDirectories
+    private final Set<Path> shards = ConcurrentHashMap.newKeySet();
+    // a blob is only checked for references and deleted under the lock of its hash
+    private final Object[] locks = new Object[LOCK_STRIPES];
+    private final Queue<String> deferredReleases = new ConcurrentLinkedQueue<>();
+
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder released = new LongAdder();
+
+    @Autowired
+    public ImageStorageService(StoredImageRepo storedImageRepo, ImageManifest imageManifest,
+                               @Value("${image.storage.root:images}") String root,
+                               @Value("${image.storage.orphan.grace.ms:3600000}") long orphanGraceMillis) {
+        this.storedImageRepo = storedImageRepo;
+        this.imageManifest = imageManifest;
+        this.root = Paths.get(root).toAbsolutePath();
+        this.tempDirectory = this.root.resolve(TEMP_DIRECTORY);
+        this.orphanGraceMillis = orphanGraceMillis;
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(tempDirectory);
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    public Path getTempDirectory() {
+        return tempDirectory;
+    }
+
+    public static String extensionOf(MultipartFile image) {
+        String originalFilename = image.getOriginalFilename();
+        String extension = "";
+        if (originalFilename != null && originalFilename.contains(".")) {
+            extension = originalFilename.substring(originalFilename.lastIndexOf(".")).toLowerCase();
+        }
+        if (!ALLOWED_EXTENSIONS.contains(extension)) {
+            log.error("Invalid file type: {}. Only JPG, JPEG, PNG, and WEBP are allowed.", extension);
+            throw new BadRequestException("Invalid file type. Only JPG, JPEG, PNG, and WEBP are allowed.");
+        }
+        return extension;
+    }
+
+    // blobs live at blobs/ab/cd/<sha-256><ext>; the key doubles as the path below the image root
+    public static String blobKey(String contentHash, String extension) {
+        return BLOB_DIRECTORY + "/" + contentHash.substring(0, 2) + "/" + contentHash.substring(2, 4) + "/"
+                + contentHash + extension;
+    }
+
+    public Path resolve(String blobKey) {
+        return root.resolve(blobKey);
+    }
+
+
+    public String store(MultipartFile image, String ownerType, Long ownerId, int slot) {
+        if (image == null || image.isEmpty()) {
+            log.warn("No image uploaded for ID: {}", ownerId);
+            return null;
+        }
+
+        StagedImage staged = null;
+        try {
+            staged = stage(image);
+            return commit(staged, ownerType, ownerId, slot);
+        } catch (IOException e) {
+            log.error("Failed to save image: {}", e.getMessage());
+            throw new BadRequestException("Failed to save image");
+        } finally {
+            discard(staged);
+        }
+    }
+
+    // writes and hashes the upload into tmp; nothing is visible until commit, so a failed batch only drops temp files
+    public StagedImage stage(MultipartFile image) throws IOException {
+        String extension = extensionOf(image);
+        Path temp = Files.createTempFile(tempDirectory, "upload-", extension);
+        try (InputStream in = image.getInputStream()) {
+            String contentHash = copyAndHash(Channels.newChannel(in), temp);
+            return new StagedImage(temp, contentHash, extension, Files.size(temp));
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+    }
+
+    public String commit(StagedImage staged, String ownerType, Long ownerId, int slot) throws IOException {
+        publish(staged.temp(), staged.contentHash(), staged.extension());
+        return map(ownerType, ownerId, slot, staged.contentHash(), staged.extension(), staged.size());
+    }
+
+    public void discard(StagedImage staged) {
+        if (staged != null) {
+            deleteQuietly(staged.temp());
+        }
+    }
+
+    // the mapping of an existing file; used by the legacy migration, which already holds the bytes on disk
+    String importFile(Path source, String ownerType, Long ownerId, int slot, boolean move) throws IOException {
+        String fileName = source.getFileName().toString();
+        String extension = fileName.substring(fileName.lastIndexOf('.')).toLowerCase();
+
+        Path temp = Files.createTempFile(tempDirectory, "import-", extension);
+        try {
+            String contentHash;
+            try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+                contentHash = copyAndHash(in, temp);
+            }
+            long size = Files.size(temp);
+            publish(temp, contentHash, extension);
+            temp = null;
+            String key = map(ownerType, ownerId, slot, contentHash, extension, size);
+            if (move) {
+                Files.deleteIfExists(source);
+            }
+            return key;
+        } finally {
+            deleteQuietly(temp);
+        }
+    }
+
+    // one pass over the upload: every buffer is hashed and written before the next read
+    private String copyAndHash(ReadableByteChannel source, Path target) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (source.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+            out.force(false);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void publish(Path temp, String contentHash, String extension) throws IOException {
+        Path target = resolve(blobKey(contentHash, extension));
+        synchronized (lockFor(contentHash)) {
+            if (Files.exists(target)) {
+                // identical bytes are already stored; the touch keeps a pending release from deleting them
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                Files.delete(temp);
+                deduplicated.increment();
+                return;
+            }
+            ensureShard(target.getParent());
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            stored.increment();
+        }
+    }
+
+    private String map(String ownerType, Long ownerId, int slot, String contentHash, String extension, long size) {
+        StoredImage image = storedImageRepo.findByOwnerTypeAndOwnerIdAndSlot(ownerType, ownerId, slot)
+                .orElseGet(() -> new StoredImage(ownerType, ownerId, slot));
+        String previous = image.getContentHash() == null ? null : blobKey(image.getContentHash(), image.getExtension());
+
+        image.setContentHash(contentHash);
+        image.setExtension(extension);
+        image.setSize(size);
+        image.setStoredAt(LocalDateTime.now());
+        String key = blobKey(contentHash, extension);
+        // a duplicate of an already processed upload reuses its derivatives
+        image.setDerivativesReady(imageManifest.isDerived(key));
+        storedImageRepo.save(image);
+
+        TransactionUtils.afterCommit(() -> {
+            if (slot == PRIMARY_SLOT) {
+                imageManifest.record(ownerType, ownerId, key);
+            }
+            if (previous != null && !previous.equals(key)) {
+                release(previous);
+            }
+        });
+        log.info("Image for {} {} slot {} stored as {}", ownerType, ownerId, slot, key);
+        return key;
+    }
+
+    public void release(String blobKey) {
+        String fileName = blobKey.substring(blobKey.lastIndexOf('/') + 1);
+        int dot = fileName.lastIndexOf('.');
+        String contentHash = fileName.substring(0, dot);
+        String extension = fileName.substring(dot);
+        Path blob = resolve(blobKey);
+
+        synchronized (lockFor(contentHash)) {
+            if (storedImageRepo.existsByContentHashAndExtension(contentHash, extension)) {
+                return;
+            }
+            try {
+                // a concurrent upload of the same bytes may not have committed its mapping yet
+                if (Files.exists(blob)
+                        && System.currentTimeMillis() - Files.getLastModifiedTime(blob).toMillis() < orphanGraceMillis) {
+                    deferredReleases.add(blobKey);
+                    return;
+                }
+                if (Files.deleteIfExists(blob)) {
+                    released.increment();
+                    log.info("Deleted unreferenced image {}", blobKey);
+                }
+                imageManifest.markDerived(blobKey, false);
+                for (ImageDerivative derivative : ImageDerivative.values()) {
+                    Files.deleteIfExists(resolve(derivative.keyFor(blobKey)));
+                }
+            } catch (IOException e) {
+                log.warn("Failed to delete unreferenced image {}: {}", blobKey, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${image.storage.orphan.grace.ms:3600000}")
+    public void retryDeferredReleases() {
+        int pending = deferredReleases.size();
+        for (int i = 0; i < pending; i++) {
+            String blobKey = deferredReleases.poll();
+            if (blobKey == null) {
+                break;
+            }
+            release(blobKey);
+        }
+    }
+
+    public ImageStorageStatsDTO stats() {
+        return new ImageStorageStatsDTO(
+                storedImageRepo.count(),
+                stored.sum(),
+                deduplicated.sum(),
+                released.sum(),
+                deferredReleases.size()
+        );
+    }
+
+    public void loadManifest() {
+        long start = System.currentTimeMillis();
+        Map<String, Map<Long, String>> loaded = new HashMap<>();
+        Set<String> derived = new HashSet<>();
+        for (StoredImageKeyRow row : storedImageRepo.findPrimaryKeyRows()) {
+            String key = blobKey(row.getContentHash(), row.getExtension());
+            loaded.computeIfAbsent(row.getOwnerType(), type -> new HashMap<>()).put(row.getOwnerId(), key);
+            if (row.isDerivativesReady()) {
+                derived.add(key);
+            }
+        }
+        imageManifest.load(loaded, derived);
+        log.info("Image manifest loaded with {} images in {} ms", imageManifest.size(), System.currentTimeMillis() - start);
+    }
+
+    private void ensureShard(Path shard) throws IOException {
+        if (!shards.contains(shard)) {
+            Files.createDirectories(shard);
+            shards.add(shard);
+        }
+    }
+
+    private Object lockFor(String contentHash) {
+        return locks[Math.floorMod(contentHash.hashCode(), LOCK_STRIPES)];
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary image {}: {}", path, e.getMessage());
+        }
+    }
+}
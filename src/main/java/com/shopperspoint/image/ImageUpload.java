@@ -0,0 +1,6 @@
+package com.shopperspoint.image;
+
+import org.springframework.web.multipart.MultipartFile;
+
+public record ImageUpload(String ownerType, int slot, MultipartFile file) {
+}
@@ -0,0 +1,77 @@
+package com.shopperspoint.image;
+
+import com.shopperspoint.repository.StoredImageRepo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class ImageVisibility {
+
+    private static final int HASH_LENGTH = 64;
+
+    private final StoredImageRepo storedImageRepo;
+    private final List<String> publicOwnerTypes;
+    // once a product shows these bytes they are public whoever else stores them
+    private final Set<String> publicBlobKeys = ConcurrentHashMap.newKeySet();
+    // blob key -> expiry of a private answer; bounded, and expiring so a later product upload of the bytes shows up
+    private final Map<String, Long> privateBlobKeys;
+    private final long privateTtlMillis;
+
+    // product images are served to anyone; profile photos share the blob store but stay behind authentication
+    @Autowired
+    public ImageVisibility(StoredImageRepo storedImageRepo,
+                           @Value("${image.product.variation}") String variationType,
+                           @Value("${image.product.variation.secondary}") String secondaryType,
+                           @Value("${image.visibility.private.cache.size:10000}") int privateCacheSize,
+                           @Value("${image.visibility.private.cache.ttl.ms:60000}") long privateTtlMillis) {
+        this.storedImageRepo = storedImageRepo;
+        this.publicOwnerTypes = List.of(variationType, secondaryType);
+        this.privateTtlMillis = privateTtlMillis;
+        this.privateBlobKeys = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > privateCacheSize;
+            }
+        };
+    }
+
+    // relative is a store path below the image root, "blobs/..." or "derivatives/<size>/..."
+    public boolean isPublic(String relative) {
+        String blobKey = ImageDerivative.blobKeyOf(relative);
+        if (blobKey == null) {
+            return false;
+        }
+        if (publicBlobKeys.contains(blobKey)) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (privateBlobKeys) {
+            Long privateUntil = privateBlobKeys.get(blobKey);
+            if (privateUntil != null && privateUntil > now) {
+                return false;
+            }
+        }
+
+        String fileName = blobKey.substring(blobKey.lastIndexOf('/') + 1);
+        if (fileName.length() <= HASH_LENGTH) {
+            return false;
+        }
+        boolean visible = storedImageRepo.existsByContentHashAndExtensionAndOwnerTypeIn(
+                fileName.substring(0, HASH_LENGTH), fileName.substring(HASH_LENGTH), publicOwnerTypes);
+        if (visible) {
+            publicBlobKeys.add(blobKey);
+        } else {
+            synchronized (privateBlobKeys) {
+                privateBlobKeys.put(blobKey, now + privateTtlMillis);
+            }
+        }
+        return visible;
+    }
+}
@@ -0,0 +1,136 @@
+package com.shopperspoint.image;
+
+import com.shopperspoint.repository.ProductVariationRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Component
+@Slf4j
+public class LegacyImageMigrator {
+
+    private static final Set<String> STORE_DIRECTORIES = Set.of("blobs", "tmp");
+
+    private final ImageStorageService imageStorageService;
+    private final ProductVariationRepo productVariationRepo;
+
+    @Autowired
+    public LegacyImageMigrator(ImageStorageService imageStorageService, ProductVariationRepo productVariationRepo) {
+        this.imageStorageService = imageStorageService;
+        this.productVariationRepo = productVariationRepo;
+    }
+
+    @Value("${image.storage.migrate.on-startup:true}")
+    private boolean migrateOnStartup;
+
+    @Value("${image.product.variation}")
+    private String variationType;
+
+    @Value("${image.product.variation.secondary}")
+    private String secondaryType;
+
+    // legacy secondary files were named variationId * value + position
+    @Value("${id.value}")
+    private Long value;
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // loaded first so listings have their images while the migration runs; migrated files record themselves
+        imageStorageService.loadManifest();
+        if (migrateOnStartup) {
+            migrate();
+        }
+    }
+
+    // moves flat images/<type>/<id>.<ext> files into the store; migrated files are gone, so a rerun resumes
+    public void migrate() {
+        Path root = imageStorageService.getRoot();
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        int migrated = 0;
+        int failed = 0;
+        try (Stream<Path> typeDirectories = Files.list(root)) {
+            for (Path typeDirectory : typeDirectories.filter(Files::isDirectory).toList()) {
+                String type = typeDirectory.getFileName().toString();
+                if (STORE_DIRECTORIES.contains(type)) {
+                    continue;
+                }
+                for (Path file : legacyFiles(typeDirectory)) {
+                    try {
+                        migrateFile(type, file);
+                        migrated++;
+                    } catch (IOException | RuntimeException e) {
+                        failed++;
+                        log.error("Failed to migrate legacy image {}: {}", file, e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("Failed to scan image directory {}: {}", root, e.getMessage());
+        }
+
+        if (migrated > 0 || failed > 0) {
+            log.info("Migrated {} legacy images ({} failed) in {} ms", migrated, failed, System.currentTimeMillis() - start);
+        }
+    }
+
+    // oldest first, so when re-uploads left several extensions for one id the newest mapping wins
+    private List<Path> legacyFiles(Path typeDirectory) throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> paths = Files.list(typeDirectory)) {
+            paths.filter(Files::isRegularFile).forEach(files::add);
+        }
+        files.sort(Comparator.comparingLong(LegacyImageMigrator::lastModified));
+        return files;
+    }
+
+    private void migrateFile(String type, Path file) throws IOException {
+        String fileName = file.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        if (dot <= 0) {
+            return;
+        }
+        long id;
+        try {
+            id = Long.parseLong(fileName.substring(0, dot));
+        } catch (NumberFormatException e) {
+            return;
+        }
+
+        long ownerId = id;
+        int slot = ImageStorageService.PRIMARY_SLOT;
+        if (type.equals(secondaryType)) {
+            ownerId = id / value;
+            slot = (int) (id % value);
+        }
+
+        String key = imageStorageService.importFile(file, type, ownerId, slot, true);
+        if (type.equals(variationType)) {
+            productVariationRepo.updatePrimaryImageName(ownerId, key);
+        }
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.shopperspoint.image;
+
+import java.nio.file.Path;
+
+public record StagedImage(Path temp, String contentHash, String extension, long size) {
+}
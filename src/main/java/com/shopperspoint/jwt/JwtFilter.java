@@ -1,8 +1,8 @@
 package com.shopperspoint.jwt;
 
 import com.shopperspoint.exceptionhandler.InvalidTokenException;
-import com.shopperspoint.repository.BlacklistTokenRepo;
 import com.shopperspoint.service.MyUserDetailsService;
+import com.shopperspoint.service.TokenEpochService;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
@@ -27,13 +27,16 @@ import java.nio.file.AccessDeniedException;
 public class JwtFilter extends OncePerRequestFilter {
     private final JwtUtil jwtUtil;
     private final ApplicationContext context;
-    private final BlacklistTokenRepo blacklistTokenRepo;
+    private final TokenRevocationCache tokenRevocationCache;
+    private final TokenEpochService tokenEpochService;
 
     @Autowired
-    public JwtFilter(JwtUtil jwtUtil, ApplicationContext context, BlacklistTokenRepo blacklistTokenRepo) {
+    public JwtFilter(JwtUtil jwtUtil, ApplicationContext context, TokenRevocationCache tokenRevocationCache,
+                     TokenEpochService tokenEpochService) {
         this.jwtUtil = jwtUtil;
         this.context = context;
-        this.blacklistTokenRepo = blacklistTokenRepo;
+        this.tokenRevocationCache = tokenRevocationCache;
+        this.tokenEpochService = tokenEpochService;
     }
 
 
@@ -52,20 +55,25 @@ public class JwtFilter extends OncePerRequestFilter {
         String refreshToken = getCookieValue(request, "refreshToken");
         try {
             if (accessToken != null) {
-                if (blacklistTokenRepo.existsByAccessToken(accessToken)) {
+                if (tokenRevocationCache.isAccessTokenRevoked(accessToken)) {
                     throw new AccessDeniedException("Access token  blacklisted");
                 }
 
 
-                String userName = jwtUtil.extractUserName(accessToken);
+                ParsedToken parsedAccessToken = jwtUtil.parse(accessToken);
+                String userName = parsedAccessToken.subject();
 
-                if (jwtUtil.extractTokenType(accessToken).equals("refresh")) {
+                if (parsedAccessToken.isRefreshToken()) {
                     throw new AccessDeniedException("Refresh tokens are not allowed to access this resource.");
                 }
 
+                if (!tokenEpochService.isCurrent(parsedAccessToken)) {
+                    throw new AccessDeniedException("Access token has been revoked");
+                }
+
                 if (userName != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = context.getBean(MyUserDetailsService.class).loadUserByUsername(userName);
-                    if (jwtUtil.validateToken(accessToken, userDetails)) {
+                    UserDetails userDetails = context.getBean(MyUserDetailsService.class).loadAuthenticatedUser(userName);
+                    if (jwtUtil.validateToken(parsedAccessToken, userDetails)) {
                         setAuthentication(userDetails, request);
                     }
                 }
@@ -74,19 +82,24 @@ public class JwtFilter extends OncePerRequestFilter {
         } catch (ExpiredJwtException e) {
             if (refreshToken != null) {
                 try {
-                    if (blacklistTokenRepo.existsByRefreshToken(refreshToken)) {
+                    if (tokenRevocationCache.isRefreshTokenRevoked(refreshToken)) {
                         throw new AccessDeniedException("Refresh token is blacklisted");
                     }
 
-                    String username = jwtUtil.extractUserName(refreshToken);
-                    if ("refresh".equals(jwtUtil.extractTokenType(refreshToken))) {
-                        String newAccessToken = jwtUtil.generateToken(username, "access");
+                    ParsedToken parsedRefreshToken = jwtUtil.parse(refreshToken);
+                    String username = parsedRefreshToken.subject();
+                    if (!tokenEpochService.isCurrent(parsedRefreshToken)) {
+                        throw new AccessDeniedException("Refresh token has been revoked");
+                    }
+                    if (parsedRefreshToken.isRefreshToken()) {
+                        String newAccessToken = jwtUtil.generateToken(username, "access",
+                                parsedRefreshToken.userId(), parsedRefreshToken.epoch() != null ? parsedRefreshToken.epoch() : 0);
                         Cookie newAccessTokenCookie = new Cookie("accessToken", newAccessToken);
                         newAccessTokenCookie.setHttpOnly(true);
                         newAccessTokenCookie.setPath("/");
                         newAccessTokenCookie.setMaxAge(expiration);
                         response.addCookie(newAccessTokenCookie);
-                        UserDetails userDetails = context.getBean(MyUserDetailsService.class).loadUserByUsername(username);
+                        UserDetails userDetails = context.getBean(MyUserDetailsService.class).loadAuthenticatedUser(username);
                         setAuthentication(userDetails, request);
                     }
                 } catch (JwtException ex) {
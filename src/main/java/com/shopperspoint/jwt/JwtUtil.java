@@ -2,24 +2,31 @@ package com.shopperspoint.jwt;
 
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
-import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.function.Function;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
 
 @Service
 public class JwtUtil {
 
     private final SecretKey key;
+    private final JwtParser parser;
+    private final int maxCachedTokens;
+
+    // sha-256 of the token -> claims that already passed signature verification
+    private final Map<String, ParsedToken> verified;
 
     @Value("${refresh.expiration.time}")
     private int refreshExpirationTime;
@@ -28,15 +35,30 @@ public class JwtUtil {
     private int accessExpirationTime;
 
 
-    public JwtUtil(@Value("${jwt.secret}") String secretKey) {
+    @Autowired
+    public JwtUtil(@Value("${jwt.secret}") String secretKey,
+                   @Value("${jwt.parse.cache.size:10000}") int maxCachedTokens) {
         byte[] decodedKey = Decoders.BASE64.decode(secretKey);
         this.key = Keys.hmacShaKeyFor(decodedKey);
-
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
+        this.maxCachedTokens = maxCachedTokens;
+        this.verified = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ParsedToken> eldest) {
+                return size() > maxCachedTokens;
+            }
+        };
     }
 
-    public String generateToken(String email, String type) {
+    public String generateToken(String email, String type, Long userId, long epoch) {
         Map<String, Object> claims = new HashMap<>();
         claims.put("token_type", type);
+        if (userId != null) {
+            claims.put("uid", userId);
+        }
+        claims.put("epoch", epoch);
 
         long expiryTimeMillis = "access".equals(type) ? accessExpirationTime : refreshExpirationTime;
 
@@ -50,43 +72,59 @@ public class JwtUtil {
     }
 
 
-    private SecretKey getKey() {
-        return key;
+    // verifies the signature once; repeats of the same cookie are served from the cache until the token expires
+    public ParsedToken parse(String token) {
+        if (maxCachedTokens <= 0) {
+            return verify(token);
+        }
+
+        String digest = digest(token);
+        ParsedToken cached;
+        synchronized (verified) {
+            cached = verified.get(digest);
+        }
+        if (cached != null && !cached.isExpired()) {
+            return cached;
+        }
+
+        // an expired entry falls through so the parser raises ExpiredJwtException as before
+        ParsedToken parsed = verify(token);
+        synchronized (verified) {
+            verified.put(digest, parsed);
+        }
+        return parsed;
     }
 
-
-    public String extractUserName(String token) {
-        // extract the username from jwt token
-        return extractClaim(token, Claims::getSubject);
+    private ParsedToken verify(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        return new ParsedToken(claims.getSubject(), claims.get("token_type", String.class),
+                claims.get("uid", Long.class), claims.get("epoch", Long.class), claims.getExpiration());
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimResolver.apply(claims);
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
 
-    public boolean validateToken(String token, UserDetails userDetails) {
-        final String userName = extractUserName(token);
-        return (userName.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    public String extractUserName(String token) {
+        // extract the username from jwt token
+        return parse(token).subject();
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public boolean validateToken(String token, UserDetails userDetails) {
+        return validateToken(parse(token), userDetails);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    public boolean validateToken(ParsedToken token, UserDetails userDetails) {
+        return (token.subject().equals(userDetails.getUsername()) && !token.isExpired());
     }
 
     public String extractTokenType(String token) {
-        return extractAllClaims(token).get("token_type", String.class);
+        return parse(token).type();
     }
 }
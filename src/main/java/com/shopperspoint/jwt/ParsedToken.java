@@ -0,0 +1,14 @@
+package com.shopperspoint.jwt;
+
+import java.util.Date;
+
+public record ParsedToken(String subject, String type, Long userId, Long epoch, Date expiration) {
+
+    public boolean isRefreshToken() {
+        return "refresh".equals(type);
+    }
+
+    public boolean isExpired() {
+        return expiration.before(new Date());
+    }
+}
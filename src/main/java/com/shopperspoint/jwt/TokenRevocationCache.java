@@ -0,0 +1,205 @@
+package com.shopperspoint.jwt;
+
+import com.shopperspoint.dto.TokenRevocationStatsDTO;
+import com.shopperspoint.repository.BlacklistTokenRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+@Component
+@Slf4j
+public class TokenRevocationCache {
+
+    private final BlacklistTokenRepo blacklistTokenRepo;
+    private final int minimumCapacity;
+    private final double falsePositiveRate;
+
+    // token -> revoked at; exact, covers revocations the current filter was not built with
+    private final Map<String, Long> recent = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    @Autowired
+    public TokenRevocationCache(BlacklistTokenRepo blacklistTokenRepo,
+                                @Value("${token.revocation.capacity:10000}") int minimumCapacity,
+                                @Value("${token.revocation.false-positive-rate:0.001}") double falsePositiveRate) {
+        this.blacklistTokenRepo = blacklistTokenRepo;
+        this.minimumCapacity = minimumCapacity;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+
+    public boolean isAccessTokenRevoked(String accessToken) {
+        return isRevoked(accessToken, blacklistTokenRepo::existsByAccessToken);
+    }
+
+    public boolean isRefreshTokenRevoked(String refreshToken) {
+        return isRevoked(refreshToken, blacklistTokenRepo::existsByRefreshToken);
+    }
+
+    private boolean isRevoked(String token, Predicate<String> blacklisted) {
+        if (recent.containsKey(token)) {
+            hits.increment();
+            return true;
+        }
+
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(token)) {
+            misses.increment();
+            return false;
+        }
+
+        // not warmed up yet, or the filter cannot rule the token out
+        if (blacklisted.test(token)) {
+            hits.increment();
+            recent.put(token, System.currentTimeMillis());
+            return true;
+        }
+        if (current != null) {
+            falsePositives.increment();
+        }
+        return false;
+    }
+
+    public void revoke(String accessToken, String refreshToken) {
+        long now = System.currentTimeMillis();
+        recent.put(accessToken, now);
+        recent.put(refreshToken, now);
+
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(accessToken);
+            current.add(refreshToken);
+        }
+    }
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    // picks up rows removed by the blacklist cleanup and resizes the filter to the table
+    @Scheduled(fixedDelayString = "${token.revocation.rebuild.ms:3600000}",
+            initialDelayString = "${token.revocation.rebuild.ms:3600000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        List<String> accessTokens = blacklistTokenRepo.findAllAccessTokens();
+        List<String> refreshTokens = blacklistTokenRepo.findAllRefreshTokens();
+
+        long expected = Math.max(minimumCapacity, 2L * (accessTokens.size() + refreshTokens.size()));
+        BloomFilter rebuilt = new BloomFilter(expected, falsePositiveRate);
+        accessTokens.forEach(rebuilt::add);
+        refreshTokens.forEach(rebuilt::add);
+        recent.keySet().forEach(rebuilt::add);
+        filter = rebuilt;
+
+        // anything revoked before the scan started was already committed, so the filter has it
+        recent.values().removeIf(revokedAt -> revokedAt < start);
+        log.info("Token revocation filter rebuilt with {} tokens ({} bits, {} hashes) in {} ms",
+                rebuilt.size(), rebuilt.bitCount(), rebuilt.hashFunctions(), System.currentTimeMillis() - start);
+    }
+
+    public TokenRevocationStatsDTO stats() {
+        BloomFilter current = filter;
+        return new TokenRevocationStatsDTO(
+                current != null ? current.bitCount() : 0,
+                current != null ? current.hashFunctions() : 0,
+                current != null ? current.size() : 0,
+                recent.size(),
+                hits.sum(),
+                misses.sum(),
+                falsePositives.sum()
+        );
+    }
+
+
+    private static final class BloomFilter {
+
+        private final AtomicLongArray words;
+        private final long bits;
+        private final int hashes;
+        private final AtomicLong size = new AtomicLong();
+
+        private BloomFilter(long expected, double falsePositiveRate) {
+            long optimalBits = (long) Math.ceil(-expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (optimalBits + 63) / 64));
+            this.words = new AtomicLongArray(wordCount);
+            this.bits = (long) wordCount * 64;
+            this.hashes = (int) Math.max(1, Math.min(16, Math.round((double) bits / expected * Math.log(2))));
+        }
+
+        private void add(String token) {
+            long h1 = hash(token);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                long mask = 1L << bit;
+                words.getAndAccumulate((int) (bit >>> 6), mask, (word, m) -> word | m);
+            }
+            size.incrementAndGet();
+        }
+
+        private boolean mightContain(String token) {
+            long h1 = hash(token);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // fnv-1a over the chars, jwts are ascii so nothing is lost by skipping the utf-8 encoding
+        private static long hash(String token) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < token.length(); i++) {
+                hash ^= token.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xff51afd7ed558ccdL;
+            value ^= value >>> 33;
+            value *= 0xc4ceb9fe1a85ec53L;
+            value ^= value >>> 33;
+            return value;
+        }
+
+        private long size() {
+            return size.get();
+        }
+
+        private long bitCount() {
+            return bits;
+        }
+
+        private int hashFunctions() {
+            return hashes;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.shopperspoint.key;
+
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CategoryClosureKey implements Serializable {
+    private Long ancestorId;
+    private Long descendantId;
+}
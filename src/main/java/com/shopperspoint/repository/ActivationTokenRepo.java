@@ -1,14 +1,14 @@
 package com.shopperspoint.repository;
 
 import com.shopperspoint.entity.ActivationToken;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Service
@@ -20,8 +20,6 @@ public interface ActivationTokenRepo extends JpaRepository<ActivationToken, Long
 
     void deleteByToken(String token);
 
-    @Modifying
-    @Transactional
-    @Query("delete from  ActivationToken a where a.expiryTime < :currentTime ")
-    void deleteTokeByExpiryTime(@Param("currentTime") LocalDateTime currentTime);
+    @Query("select a.id from ActivationToken a where a.expiryTime < :now")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
 }
@@ -1,10 +1,14 @@
 package com.shopperspoint.repository;
 
 import com.shopperspoint.entity.BlacklistedToken;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 public interface BlacklistTokenRepo extends JpaRepository<BlacklistedToken, Long> {
@@ -13,6 +17,15 @@ public interface BlacklistTokenRepo extends JpaRepository<BlacklistedToken, Long
 
     Boolean existsByRefreshToken(String refreshToken);
 
-    void deleteByBlackListedAtBefore(LocalDateTime expirationTime);
+    // logout bumps the user's token epoch instead of writing here, so the table only drains; a row is dead
+    // once the longest-lived token it could have revoked has expired on its own
+    @Query("select b.id from BlacklistedToken b where b.blackListedAt < :cutoff")
+    List<Long> findExpiredIds(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Query("select b.accessToken from BlacklistedToken b")
+    List<String> findAllAccessTokens();
+
+    @Query("select b.refreshToken from BlacklistedToken b")
+    List<String> findAllRefreshTokens();
 
 }
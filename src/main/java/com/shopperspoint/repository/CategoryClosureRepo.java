@@ -0,0 +1,42 @@
+package com.shopperspoint.repository;
+
+import com.shopperspoint.entity.CategoryClosure;
+import com.shopperspoint.key.CategoryClosureKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface CategoryClosureRepo extends JpaRepository<CategoryClosure, CategoryClosureKey> {
+
+    // a new leaf inherits every path that ends at its parent, one level deeper
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into category_closure (ancestor_id, descendant_id, depth)
+            select ancestor_id, :id, depth + 1 from category_closure where descendant_id = :parentId
+            """, nativeQuery = true)
+    int insertPathsUnder(@Param("id") Long id, @Param("parentId") Long parentId);
+
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into category_closure (ancestor_id, descendant_id, depth)
+            select id, id, 0 from category
+            """, nativeQuery = true)
+    int insertSelfPaths();
+
+    // extends every path of the previous depth by the child below its descendant
+    @Modifying
+    @Transactional
+    @Query(value = """
+            insert into category_closure (ancestor_id, descendant_id, depth)
+            select cc.ancestor_id, c.id, cc.depth + 1 from category c
+            join category_closure cc on cc.descendant_id = c.parent_category_id
+            where cc.depth = :parentDepth
+            """, nativeQuery = true)
+    int insertPathsBelowDepth(@Param("parentDepth") int parentDepth);
+
+    long countByDepth(int depth);
+}
@@ -3,6 +3,7 @@ package com.shopperspoint.repository;
 import com.shopperspoint.entity.CategoryMetadataFieldValues;
 import com.shopperspoint.key.CategoryMetadataKey;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -20,4 +21,7 @@ public interface CategoryMetadataFieldValuesRepo extends JpaRepository<CategoryM
 
     List<CategoryMetadataFieldValues> findFieldValuesByCategoryIdAndCategoryMetadataFieldId(Long categoryId, Long fieldId);
 
+    @Query("select v from CategoryMetadataFieldValues v join fetch v.categoryMetadataField join fetch v.category")
+    List<CategoryMetadataFieldValues> findAllWithField();
+
 }
@@ -1,9 +1,15 @@
 package com.shopperspoint.repository;
 
 import com.shopperspoint.entity.Category;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -15,6 +21,10 @@ public interface CategoryRepo extends JpaRepository<Category, Long> {
 
     Page<Category> findByNameContainingIgnoreCase(String filter, Pageable pageable);
 
+    Window<Category> findByNameContainingIgnoreCase(String filter, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Category> findAllBy(ScrollPosition position, Sort sort, Limit limit);
+
     List<Category> findByParentCategoryId(Long parentId);
 
     List<Category> findByParentCategory(Category parent);
@@ -25,4 +35,22 @@ public interface CategoryRepo extends JpaRepository<Category, Long> {
 
     boolean existsByName(String name);
 
+    boolean existsByNameIgnoreCase(String name);
+
+    // root first, ending at the direct parent
+    @Query("select cc.ancestor from CategoryClosure cc where cc.descendant.id = :id and cc.depth > 0 order by cc.depth desc")
+    List<Category> findAncestors(@Param("id") Long id);
+
+    @Query("""
+            select count(cc) > 0 from CategoryClosure cc
+            where cc.descendant.id = :id and cc.depth >= :minDepth and lower(cc.ancestor.name) = lower(:name)
+            """)
+    boolean existsAncestorNamed(@Param("id") Long id, @Param("name") String name, @Param("minDepth") int minDepth);
+
+    @Query("""
+            select count(cc) > 0 from CategoryClosure cc
+            where cc.ancestor.id = :id and cc.depth > 0 and lower(cc.descendant.name) = lower(:name)
+            """)
+    boolean existsDescendantNamed(@Param("id") Long id, @Param("name") String name);
+
 }
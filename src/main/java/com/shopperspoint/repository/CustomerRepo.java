@@ -1,7 +1,11 @@
 package com.shopperspoint.repository;
 
 import com.shopperspoint.entity.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,6 +25,11 @@ public interface CustomerRepo extends JpaRepository<Customer, Long> {
             Pageable pageable
     );
 
+    Window<Customer> findByRolesAuthority(String authority, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Customer> findByRolesAuthorityAndEmailContaining(String authority, String email, ScrollPosition position,
+                                                        Sort sort, Limit limit);
+
 
     Customer findByEmail(String email);
 }
@@ -0,0 +1,51 @@
+package com.shopperspoint.repository;
+
+import com.shopperspoint.entity.EmailOutbox;
+import com.shopperspoint.enums.EmailStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface EmailOutboxRepo extends JpaRepository<EmailOutbox, Long> {
+
+    List<EmailOutbox> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(EmailStatus status, LocalDateTime now,
+                                                                           Limit limit);
+
+    List<EmailOutbox> findByClaimTokenAndStatus(String claimToken, EmailStatus status);
+
+    List<EmailOutbox> findByStatusAndIdGreaterThanOrderByIdAsc(EmailStatus status, Long id, Limit limit);
+
+    long countByStatus(EmailStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("delete from EmailOutbox e where e.id in :ids and e.status = :status")
+    int deleteByIdInAndStatus(@Param("ids") Collection<Long> ids, @Param("status") EmailStatus status);
+
+    @Modifying
+    @Transactional
+    @Query("update EmailOutbox e set e.status = :to where e.id in :ids and e.status = :from")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("from") EmailStatus from, @Param("to") EmailStatus to);
+
+    @Modifying
+    @Transactional
+    @Query("update EmailOutbox e set e.status = :to where e.status = :from and e.nextAttemptAt <= :before")
+    int updateStatusBefore(@Param("from") EmailStatus from, @Param("to") EmailStatus to,
+                           @Param("before") LocalDateTime before);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            update EmailOutbox e set e.status = :to, e.claimToken = :claimToken, e.nextAttemptAt = :abandonAt
+            where e.id in :ids and e.status = :from
+            """)
+    int claim(@Param("ids") Collection<Long> ids, @Param("from") EmailStatus from, @Param("to") EmailStatus to,
+              @Param("claimToken") String claimToken, @Param("abandonAt") LocalDateTime abandonAt);
+}
@@ -1,14 +1,15 @@
 package com.shopperspoint.repository;
 
 import com.shopperspoint.entity.ResetPasswordToken;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface PasswordTokenRepo extends JpaRepository<ResetPasswordToken, Long> {
@@ -20,10 +21,8 @@ public interface PasswordTokenRepo extends JpaRepository<ResetPasswordToken, Lon
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     void deleteByToken(String token);
 
-    @Modifying
-    @Transactional
-    @Query("delete from  ActivationToken a where a.expiryTime < :currentTime ")
-    void deleteTokeByExpiryTime(@Param("currentTime") LocalDateTime currentTime);
+    @Query("select r.id from ResetPasswordToken r where r.expiryTime < :now")
+    List<Long> findExpiredIds(@Param("now") LocalDateTime now, Limit limit);
 
     Boolean existsByEmail(String email);
 
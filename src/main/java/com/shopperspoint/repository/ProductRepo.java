@@ -1,102 +1,63 @@
 package com.shopperspoint.repository;
 
+import com.shopperspoint.dto.ProductViewRow;
 import com.shopperspoint.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepo extends JpaRepository<Product, Long> {
 
-    List<Product> findByCategoryIdIn(List<Long> categoryIds);
-
     boolean existsByNameIgnoreCaseAndBrandAndCategoryIdAndSellerId(String name, String brand, Long categoryId, Long sellerId);
 
     Page<Product> findBySellerIdAndIsDeletedFalse(Long sellerId, Pageable pageable);
 
+    Window<Product> findBySellerIdAndIsDeletedFalse(Long sellerId, ScrollPosition position, Sort sort, Limit limit);
 
-    @Query("""
-            select p from Product p
-            where p.seller.id = :sellerId
-            and(
-                :query is null or
-                lower(p.name) like lower(concat('%', :query, '%')) or
-                lower(p.brand) like lower(concat('%', :query, '%'))
-            )
-            """)
-    Page<Product> findProductsBySeller(
-            @Param("sellerId") Long sellerId,
-            @Param("query") String query,
-            Pageable pageable
-    );
-
-    @Query(
-            """
-                    select p from Product p
-                    where p.isDeleted = false and
-                    p.isActive = true and
-                    p.category.id in :categoryIds
-                    and(
-                        :query is null or
-                        lower(p.name) like lower(concat('%', :query, '%')) or
-                        lower(p.brand) like lower(concat('%', :query, '%')) or
-                        lower(p.description) like lower(concat('%', :query, '%'))
-                    )
-                    """
-    )
-    Page<Product> findByAllCategoryIdsAndFilter(
-            @Param("categoryIds") List<Long> categoryIds,
-            @Param("query") String query,
-            Pageable pageable
-    );
-
-    Page<Product> findByCategoryIdInAndIsActiveTrueAndIsDeletedFalse(List<Long> categoryIds, Pageable pageable);
-
-    Page<Product> findByCategoryIdAndIsActiveTrueAndIsDeletedFalse(Long categoryId, Pageable pageable);
-
-    Page<Product> findByIsDeletedFalseAndIsActiveTrue(Pageable pageable);
 
-    @Query("""
-                SELECT p FROM Product p
-                WHERE p.isActive = true AND
-                      p.isDeleted = false AND (
-                    :query IS NULL OR
-                    lower(p.name) LIKE lower(concat('%', :query, '%')) OR
-                    lower(p.brand) LIKE lower(concat('%', :query, '%')) OR
-                    lower(p.description) LIKE lower(concat('%', :query, '%')) OR
-                    str(p.category.id) LIKE concat('%', :query, '%') OR
-                    str(p.seller.id) LIKE concat('%', :query, '%')
-                )
-            """)
-    Page<Product> findActiveProductWithQuery(
-            @Param("query") String query,
-            Pageable pageable
-    );
+    Window<Product> findByCategoryIdInAndIsActiveTrueAndIsDeletedFalse(List<Long> categoryIds, ScrollPosition position,
+                                                                        Sort sort, Limit limit);
+
+    Window<Product> findByIsDeletedFalseAndIsActiveTrue(ScrollPosition position, Sort sort, Limit limit);
 
     Optional<Product> findByIdAndIsActiveTrueAndIsDeletedFalse(Long productId);
 
+    // keyset scan for full rebuilds: a row deleted behind the scan cannot shift a later one out of the next batch
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("select p.id from Product p where p.id > :id order by p.id")
+    List<Long> findIdsAfter(@Param("id") Long id, Limit limit);
+
 
-    @Query(
-            """
-                    select p from Product p
-                    where p.isDeleted = false and
-                    p.isActive = true and
-                    p.category.id = :categoryId
-                    and(
-                        :query is null or
-                        lower(p.name) like lower(concat('%', :query, '%')) or
-                        lower(p.brand) like lower(concat('%', :query, '%')) or
-                        lower(p.description) like lower(concat('%', :query, '%'))
-                    )
-                    """
-    )
-    Page<Product> findActiveProductsByCategoryIdAndQuery(
-            @Param("categoryId") Long categoryId,
-            @Param("query") String filter,
-            Pageable pageable
-    );
+    // listings only read the ids of one page, so these return a List and skip the count query a Page would run
+    @Query("select p.id from Product p where p.category.id = :categoryId and p.isActive = true and p.isDeleted = false")
+    List<Long> findActiveIdsByCategoryId(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    // products only sit on leaves, so every descendant row of the closure (self included) is a candidate
+    @Query("""
+            select p.id from Product p join CategoryClosure cc on cc.descendant = p.category
+            where cc.ancestor.id = :categoryId and p.isActive = true and p.isDeleted = false
+            """)
+    List<Long> findActiveIdsUnderCategory(@Param("categoryId") Long categoryId, Pageable pageable);
+
+    @Query("select p.id from Product p where p.isActive = true and p.isDeleted = false")
+    List<Long> findActiveIds(Pageable pageable);
+
+    @Query("""
+            select new com.shopperspoint.dto.ProductViewRow(
+            p.id, p.name, p.brand, p.description, p.isCancellable, p.isReturnable, c.id, c.name)
+            from Product p join p.category c
+            where p.id in :ids
+            """)
+    List<ProductViewRow> findViewRowsByIdIn(@Param("ids") Collection<Long> ids);
 }
@@ -1,12 +1,20 @@
 package com.shopperspoint.repository;
 
+import com.shopperspoint.dto.VariationImageRow;
 import com.shopperspoint.entity.ProductVariation;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface ProductVariationRepo extends JpaRepository<ProductVariation, Long> {
@@ -17,8 +25,32 @@ public interface ProductVariationRepo extends JpaRepository<ProductVariation, Lo
 
     List<ProductVariation> findByProductIdAndIsActiveTrue(Long productId);
 
+    boolean existsByProductIdAndMetadataFingerprint(Long productId, String metadataFingerprint);
+
+    boolean existsByProductIdAndMetadataFingerprintAndIdNot(Long productId, String metadataFingerprint, Long id);
+
+    List<ProductVariation> findByMetadataFingerprintIsNullAndIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    @Query("""
+            select new com.shopperspoint.dto.VariationImageRow(pv.product.id, pv.id, pv.primaryImageName)
+            from ProductVariation pv
+            where pv.product.id in :productIds and pv.isActive = true
+            order by pv.id
+            """)
+    List<VariationImageRow> findActiveImageRowsByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @Transactional
+    @Query("update ProductVariation pv set pv.primaryImageName = :name where pv.id = :id")
+    int updatePrimaryImageName(@Param("id") Long id, @Param("name") String name);
+
     Page<ProductVariation> findByProductId(Long productId, Pageable pageable);
 
+    Window<ProductVariation> findByProductId(Long productId, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<ProductVariation> findByProductIdAndMetaDataContainingIgnoreCase(Long productId, String query, ScrollPosition position,
+                                                                            Sort sort, Limit limit);
+
     @Query("""
             select pv from ProductVariation pv
             where pv.product.id = :productId
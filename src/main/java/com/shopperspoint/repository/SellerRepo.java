@@ -1,7 +1,11 @@
 package com.shopperspoint.repository;
 
 import com.shopperspoint.entity.Seller;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,6 +25,11 @@ public interface SellerRepo extends JpaRepository<Seller, Long> {
             Pageable pageable
     );
 
+    Window<Seller> findByRolesAuthority(String authority, ScrollPosition position, Sort sort, Limit limit);
+
+    Window<Seller> findByRolesAuthorityAndEmailContaining(String authority, String email, ScrollPosition position,
+                                                        Sort sort, Limit limit);
+
     Seller findByEmail(String email);
 
     Boolean existsByGst(String gst);
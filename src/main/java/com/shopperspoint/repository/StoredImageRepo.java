@@ -0,0 +1,42 @@
+package com.shopperspoint.repository;
+
+import com.shopperspoint.dto.StoredImageKeyRow;
+import com.shopperspoint.entity.StoredImage;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface StoredImageRepo extends JpaRepository<StoredImage, Long> {
+
+    Optional<StoredImage> findByOwnerTypeAndOwnerIdAndSlot(String ownerType, Long ownerId, int slot);
+
+    List<StoredImage> findByOwnerTypeAndOwnerIdOrderBySlotAsc(String ownerType, Long ownerId);
+
+    boolean existsByContentHashAndExtension(String contentHash, String extension);
+
+    boolean existsByContentHashAndExtensionAndOwnerTypeIn(String contentHash, String extension,
+                                                          Collection<String> ownerTypes);
+
+    @Query("""
+            select new com.shopperspoint.dto.StoredImageKeyRow(si.ownerType, si.ownerId, si.contentHash, si.extension,
+                si.derivativesReady)
+            from StoredImage si
+            where si.slot = 0
+            """)
+    List<StoredImageKeyRow> findPrimaryKeyRows();
+
+    List<StoredImage> findBySlotAndDerivativesReadyFalseAndIdGreaterThanOrderByIdAsc(int slot, Long id, Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("update StoredImage si set si.derivativesReady = :ready where si.contentHash = :hash and si.extension = :extension")
+    int updateDerivativesReady(@Param("hash") String contentHash, @Param("extension") String extension,
+                               @Param("ready") boolean ready);
+}
@@ -1,5 +1,6 @@
 package com.shopperspoint.repository;
 
+import com.shopperspoint.dto.UserTokenEpochRow;
 import com.shopperspoint.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
@@ -7,6 +8,9 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepo extends JpaRepository<User, Long> {
@@ -20,8 +24,17 @@ public interface UserRepo extends JpaRepository<User, Long> {
 
     @Modifying
     @Transactional
-    @Query("update User u set u.invalidAttemptCount= ?1 where u.email= ?2 ")
-    void updateInvalidAttemptCount(int attempt, String email);
+    @Query("update User u set u.invalidAttemptCount = ?1, u.isLocked = ?2 " +
+            "where u.email in ?3 and u.passwordUpdatedDate < ?4")
+    void updateLoginAttempts(int attempts, boolean locked, Collection<String> emails, LocalDateTime changedBefore);
+
+    @Modifying
+    @Transactional
+    @Query("update User u set u.isExpired = true where u.id = ?1")
+    void markPasswordExpired(Long userId);
+
+    @Query("select new com.shopperspoint.dto.UserTokenEpochRow(u.id, u.tokenEpoch) from User u where u.tokenEpoch > 0")
+    List<UserTokenEpochRow> findTokenEpochRows();
 
 
 }
@@ -0,0 +1,7 @@
+package com.shopperspoint.search;
+
+import java.util.Map;
+
+public record IndexedProduct(Long id, Long categoryId, Long sellerId, boolean active, String name, String brand,
+                             Map<String, Integer> terms) {
+}
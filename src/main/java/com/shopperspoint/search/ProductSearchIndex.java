@@ -0,0 +1,317 @@
+package com.shopperspoint.search;
+
+import com.shopperspoint.entity.Product;
+import com.shopperspoint.exceptionhandler.BadRequestException;
+import com.shopperspoint.repository.ProductRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+@Component
+@Slf4j
+public class ProductSearchIndex {
+
+    public static final int NAME = 1;
+    public static final int BRAND = 2;
+    public static final int DESCRIPTION = 4;
+    public static final int ALL_FIELDS = NAME | BRAND | DESCRIPTION;
+
+    private final ProductRepo productRepo;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private Map<Long, IndexedProduct> documents = new HashMap<>();
+    // writes that land while a rebuild scans, replayed onto the new maps before the swap; a null value is a removal
+    private Map<Long, IndexedProduct> writesDuringRebuild;
+
+    @Autowired
+    public ProductSearchIndex(ProductRepo productRepo) {
+        this.productRepo = productRepo;
+    }
+
+    @Value("${search.index.rebuild.batch.size:500}")
+    private int batchSize;
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        TreeMap<String, Map<Long, Integer>> newPostings = new TreeMap<>();
+        Map<Long, IndexedProduct> newDocuments = new HashMap<>();
+
+        lock.writeLock().lock();
+        try {
+            writesDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long lastId = 0;
+        List<Product> products;
+        try {
+            do {
+                products = productRepo.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(batchSize));
+                for (Product product : products) {
+                    IndexedProduct document = toDocument(product);
+                    newDocuments.put(document.id(), document);
+                    addPostings(newPostings, document);
+                    lastId = product.getId();
+                }
+            } while (products.size() == batchSize);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                writesDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        int replayed;
+        lock.writeLock().lock();
+        try {
+            replayed = writesDuringRebuild.size();
+            writesDuringRebuild.forEach((id, document) -> {
+                IndexedProduct previous = newDocuments.remove(id);
+                if (previous != null) {
+                    removePostings(newPostings, previous);
+                }
+                if (document != null) {
+                    newDocuments.put(id, document);
+                    addPostings(newPostings, document);
+                }
+            });
+            writesDuringRebuild = null;
+            postings = newPostings;
+            documents = newDocuments;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (replayed > 0) {
+            log.debug("Replayed {} search index writes that arrived during the rebuild", replayed);
+        }
+        log.info("Product search index rebuilt with {} products and {} terms in {} ms",
+                newDocuments.size(), newPostings.size(), System.currentTimeMillis() - start);
+    }
+
+
+    public void index(Product product) {
+        if (product == null || product.getId() == null) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(product.getIsDeleted())) {
+            remove(product.getId());
+            return;
+        }
+
+        IndexedProduct document = toDocument(product);
+        lock.writeLock().lock();
+        try {
+            IndexedProduct previous = documents.put(document.id(), document);
+            if (previous != null) {
+                removePostings(postings, previous);
+            }
+            addPostings(postings, document);
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.put(document.id(), document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Indexed product {}", document.id());
+    }
+
+
+    public void remove(Long productId) {
+        lock.writeLock().lock();
+        try {
+            IndexedProduct previous = documents.remove(productId);
+            if (previous != null) {
+                removePostings(postings, previous);
+            }
+            if (writesDuringRebuild != null) {
+                writesDuringRebuild.put(productId, null);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Removed product {} from search index", productId);
+    }
+
+
+    public List<Long> search(String query, int fields, Predicate<IndexedProduct> filter,
+                             String sort, boolean ascending, int page, int size) {
+        if (page < 0) {
+            return List.of();
+        }
+        return searchFrom(query, fields, filter, sort, ascending, (long) page * size, size);
+    }
+
+    // terms match whole words by prefix ("jack" finds "jacket"), not arbitrary substrings ("phone" misses "smartphone")
+    public List<Long> searchFrom(String query, int fields, Predicate<IndexedProduct> filter,
+                                 String sort, boolean ascending, long offset, int limit) {
+        Comparator<Hit> order = order(sort, ascending);
+        List<String> queryTerms = tokenize(query);
+        if (queryTerms.isEmpty() || limit <= 0 || offset < 0) {
+            return List.of();
+        }
+
+        List<Hit> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> scores = null;
+            for (String term : queryTerms) {
+                Map<Long, Integer> termScores = matchPrefix(term, fields);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    scores.keySet().retainAll(termScores.keySet());
+                    scores.replaceAll((id, score) -> score + termScores.get(id));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            for (Map.Entry<Long, Integer> entry : scores.entrySet()) {
+                IndexedProduct document = documents.get(entry.getKey());
+                if (document != null && filter.test(document)) {
+                    hits.add(new Hit(document, entry.getValue()));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        hits.sort(order);
+
+        int from = (int) Math.min(offset, hits.size());
+        int to = (int) Math.min((long) from + limit, hits.size());
+
+        return hits.subList(from, to).stream().map(hit -> hit.document().id()).toList();
+    }
+
+    // the requested sort wins as on the unfiltered listings; equal keys keep the better match first, then the id
+    private static Comparator<Hit> order(String sort, boolean ascending) {
+        Comparator<IndexedProduct> key = switch (sort) {
+            case "id" -> Comparator.comparing(IndexedProduct::id);
+            case "name" -> Comparator.comparing(IndexedProduct::name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+            case "brand" -> Comparator.comparing(IndexedProduct::brand, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER));
+            default -> throw new BadRequestException("Filtered listings can only be sorted by id, name or brand");
+        };
+        Comparator<IndexedProduct> byId = Comparator.comparing(IndexedProduct::id);
+        return Comparator.comparing(Hit::document, ascending ? key : key.reversed())
+                .thenComparing(Comparator.comparingInt(Hit::score).reversed())
+                .thenComparing(Hit::document, ascending ? byId : byId.reversed());
+    }
+
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+
+    private Map<Long, Integer> matchPrefix(String term, int fields) {
+        Map<Long, Integer> scores = new HashMap<>();
+        for (Map<Long, Integer> posting : postings.subMap(term, true, term + Character.MAX_VALUE, false).values()) {
+            for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+                int matchedFields = entry.getValue() & fields;
+                if (matchedFields != 0) {
+                    scores.merge(entry.getKey(), weight(matchedFields), Math::max);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private static int weight(int matchedFields) {
+        int weight = 0;
+        if ((matchedFields & NAME) != 0) weight += 3;
+        if ((matchedFields & BRAND) != 0) weight += 2;
+        if ((matchedFields & DESCRIPTION) != 0) weight += 1;
+        return weight;
+    }
+
+    private static void addPostings(TreeMap<String, Map<Long, Integer>> postings, IndexedProduct document) {
+        for (Map.Entry<String, Integer> term : document.terms().entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new HashMap<>())
+                    .put(document.id(), term.getValue());
+        }
+    }
+
+    private static void removePostings(TreeMap<String, Map<Long, Integer>> postings, IndexedProduct document) {
+        for (String term : document.terms().keySet()) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(document.id());
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static IndexedProduct toDocument(Product product) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, product.getName(), NAME);
+        addTerms(terms, product.getBrand(), BRAND);
+        addTerms(terms, product.getDescription(), DESCRIPTION);
+
+        return new IndexedProduct(
+                product.getId(),
+                product.getCategory() != null ? product.getCategory().getId() : null,
+                product.getSeller() != null ? product.getSeller().getId() : null,
+                Boolean.TRUE.equals(product.getIsActive()),
+                product.getName(),
+                product.getBrand(),
+                Map.copyOf(terms)
+        );
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int field) {
+        for (String term : tokenize(text)) {
+            terms.merge(term, field, (a, b) -> a | b);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (!current.isEmpty()) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (!current.isEmpty()) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+
+
+    private record Hit(IndexedProduct document, int score) {
+    }
+}
@@ -0,0 +1,187 @@
+package com.shopperspoint.security;
+
+import com.shopperspoint.entity.User;
+import com.shopperspoint.repository.UserRepo;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@Slf4j
+public class LoginAttemptTracker {
+
+    private final UserRepo userRepo;
+    private final int maxAttempts;
+    private final long windowMillis;
+    private final Object[] stripes;
+
+    private final Map<String, Attempts> attempts = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public LoginAttemptTracker(UserRepo userRepo,
+                               @Value("${login.attempts.max:3}") int maxAttempts,
+                               @Value("${login.attempts.window.ms:900000}") long windowMillis,
+                               @Value("${login.attempts.stripes:64}") int stripeCount) {
+        this.userRepo = userRepo;
+        this.maxAttempts = maxAttempts;
+        this.windowMillis = windowMillis;
+        this.stripes = new Object[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isLocked(String email) {
+        synchronized (stripe(email)) {
+            Attempts current = attempts.get(email);
+            return current != null && current.locked;
+        }
+    }
+
+    public Outcome recordFailure(User user) {
+        String email = user.getEmail();
+        long now = System.currentTimeMillis();
+        synchronized (stripe(email)) {
+            Attempts current = attemptsFor(user, now);
+            prune(current, now);
+            if (current.locked) {
+                return new Outcome(current.failures.size(), true, false);
+            }
+
+            current.failures.addLast(now);
+            dirty.add(email);
+            if (current.failures.size() >= maxAttempts) {
+                current.locked = true;
+                return new Outcome(current.failures.size(), true, true);
+            }
+            return new Outcome(current.failures.size(), false, false);
+        }
+    }
+
+    public void recordSuccess(User user) {
+        String email = user.getEmail();
+        synchronized (stripe(email)) {
+            Attempts current = attempts.get(email);
+            boolean persistedFailures = user.getInvalidAttemptCount() != null && user.getInvalidAttemptCount() > 0;
+            if (current == null && !persistedFailures) {
+                return;
+            }
+            if (current == null) {
+                current = new Attempts();
+                attempts.put(email, current);
+            }
+            current.failures.clear();
+            dirty.add(email);
+        }
+    }
+
+    // a password reset unlocks the account in its own transaction, anything pending here is obsolete
+    public void reset(String email) {
+        synchronized (stripe(email)) {
+            attempts.remove(email);
+            dirty.remove(email);
+        }
+    }
+
+    private Attempts attemptsFor(User user, long now) {
+        return attempts.computeIfAbsent(user.getEmail(), email -> {
+            Attempts seeded = new Attempts();
+            seeded.locked = Boolean.TRUE.equals(user.getIsLocked());
+            int persisted = user.getInvalidAttemptCount() != null ? user.getInvalidAttemptCount() : 0;
+            for (int i = 0; i < persisted; i++) {
+                seeded.failures.addLast(now);
+            }
+            return seeded;
+        });
+    }
+
+    private boolean prune(Attempts current, long now) {
+        boolean pruned = false;
+        while (!current.failures.isEmpty() && current.failures.peekFirst() <= now - windowMillis) {
+            current.failures.pollFirst();
+            pruned = true;
+        }
+        return pruned;
+    }
+
+    private Object stripe(String email) {
+        return stripes[Math.floorMod(email.hashCode(), stripes.length)];
+    }
+
+
+    // one update per distinct (count, locked) pair, however many accounts changed since the last flush
+    @Scheduled(fixedDelayString = "${login.attempts.flush.ms:5000}")
+    public void flush() {
+        long now = System.currentTimeMillis();
+        LocalDateTime snapshotAt = LocalDateTime.now();
+
+        for (String email : attempts.keySet()) {
+            synchronized (stripe(email)) {
+                Attempts current = attempts.get(email);
+                if (current == null) {
+                    continue;
+                }
+                if (prune(current, now)) {
+                    dirty.add(email);
+                } else if (!dirty.contains(email) && (current.locked || current.failures.isEmpty())) {
+                    // already written by an earlier flush, the user row is the source of truth again
+                    attempts.remove(email);
+                }
+            }
+        }
+
+        Map<FlushKey, List<String>> groups = new HashMap<>();
+        for (String email : List.copyOf(dirty)) {
+            synchronized (stripe(email)) {
+                dirty.remove(email);
+                Attempts current = attempts.get(email);
+                if (current != null) {
+                    groups.computeIfAbsent(new FlushKey(current.failures.size(), current.locked), key -> new ArrayList<>())
+                            .add(email);
+                }
+            }
+        }
+
+        groups.forEach((key, emails) -> {
+            try {
+                userRepo.updateLoginAttempts(key.failures(), key.locked(), emails, snapshotAt);
+            } catch (RuntimeException e) {
+                log.error("Failed to persist login attempts for {} users: {}", emails.size(), e.getMessage());
+                dirty.addAll(emails);
+            }
+        });
+        if (!groups.isEmpty()) {
+            log.debug("Flushed login attempts in {} statements", groups.size());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+
+    public record Outcome(int failures, boolean locked, boolean newlyLocked) {
+    }
+
+    private record FlushKey(int failures, boolean locked) {
+    }
+
+    private static final class Attempts {
+        private final ArrayDeque<Long> failures = new ArrayDeque<>();
+        private boolean locked;
+    }
+}
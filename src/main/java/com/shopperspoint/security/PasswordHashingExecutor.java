@@ -0,0 +1,150 @@
+package com.shopperspoint.security;
+
+import com.shopperspoint.dto.PasswordHashingStatsDTO;
+import com.shopperspoint.exceptionhandler.TooManyRequestsException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private static final String BUSY_MESSAGE = "Too many login attempts in progress, please try again shortly";
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    // one permit per hash that is queued or running; a caller that gives up leaves a running hash its permit
+    private final Semaphore permits;
+    private final int queueCapacity;
+    private final long timeoutMillis;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder queueWaitNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxQueueWaitNanos = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+    // bcrypt is cpu bound: a few threads and a short queue, anything beyond that is turned away with a 429
+    @Autowired
+    public PasswordHashingExecutor(PasswordEncoder passwordEncoder,
+                                   @Value("${login.hashing.threads:0}") int threads,
+                                   @Value("${login.hashing.queue:32}") int queueCapacity,
+                                   @Value("${login.hashing.timeout.ms:5000}") long timeoutMillis) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.passwordEncoder = passwordEncoder;
+        this.queueCapacity = queueCapacity;
+        this.timeoutMillis = timeoutMillis;
+        this.permits = new Semaphore(poolSize + queueCapacity);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        if (!permits.tryAcquire()) {
+            throw reject();
+        }
+
+        long submittedAt = System.nanoTime();
+        // whoever flips this first owns the permit: the worker when it starts, the caller when it gives up first
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    return false;
+                }
+                long startedAt = System.nanoTime();
+                record(queueWaitNanos, maxQueueWaitNanos, startedAt - submittedAt);
+                try {
+                    return passwordEncoder.matches(rawPassword, encodedPassword);
+                } finally {
+                    record(hashNanos, maxHashNanos, System.nanoTime() - startedAt);
+                    completed.increment();
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            throw reject();
+        }
+
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            abandon(result, claimed);
+            timedOut.increment();
+            log.warn("Password hashing did not finish within {} ms", timeoutMillis);
+            throw new TooManyRequestsException(BUSY_MESSAGE);
+        } catch (InterruptedException e) {
+            abandon(result, claimed);
+            Thread.currentThread().interrupt();
+            throw new TooManyRequestsException(BUSY_MESSAGE);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private TooManyRequestsException reject() {
+        rejected.increment();
+        log.warn("Password hashing queue is full, rejecting login");
+        return new TooManyRequestsException(BUSY_MESSAGE);
+    }
+
+    // bcrypt ignores interrupts, so a started hash runs to the end and releases its own permit
+    private void abandon(Future<Boolean> result, AtomicBoolean claimed) {
+        if (claimed.compareAndSet(false, true)) {
+            executor.remove((Runnable) result);
+            permits.release();
+        }
+    }
+
+    private static void record(LongAdder total, LongAccumulator max, long nanos) {
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    public PasswordHashingStatsDTO stats() {
+        long count = completed.sum();
+        return new PasswordHashingStatsDTO(
+                executor.getMaximumPoolSize(),
+                queueCapacity,
+                executor.getQueue().size(),
+                executor.getActiveCount(),
+                count,
+                rejected.sum(),
+                timedOut.sum(),
+                count == 0 ? 0 : queueWaitNanos.sum() / 1e6 / count,
+                maxQueueWaitNanos.get() / 1e6,
+                count == 0 ? 0 : hashNanos.sum() / 1e6 / count,
+                maxHashNanos.get() / 1e6
+        );
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
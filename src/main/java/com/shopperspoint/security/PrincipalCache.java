@@ -0,0 +1,70 @@
+package com.shopperspoint.security;
+
+import com.shopperspoint.dto.UserPrinciple;
+import com.shopperspoint.utill.TransactionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Component
+public class PrincipalCache {
+
+    private final long ttlMillis;
+    private final Map<String, CachedPrincipal> entries;
+
+    // bumped on every eviction so a load that raced with it is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public PrincipalCache(@Value("${principal.cache.size:10000}") int maxEntries,
+                          @Value("${principal.cache.ttl.ms:300000}") long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPrincipal> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+
+    public UserPrinciple get(String email, Function<String, UserPrinciple> loader) {
+        long now = System.currentTimeMillis();
+        CachedPrincipal cached;
+        synchronized (entries) {
+            cached = entries.get(email);
+        }
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.principal();
+        }
+
+        long loadedAt = generation.get();
+        UserPrinciple principal = loader.apply(email);
+        synchronized (entries) {
+            if (generation.get() == loadedAt) {
+                entries.put(email, new CachedPrincipal(principal, now + ttlMillis));
+            }
+        }
+        return principal;
+    }
+
+    public void evict(String email) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.remove(email);
+        }
+    }
+
+    public void evictAfterCommit(String email) {
+        TransactionUtils.afterCommit(() -> evict(email));
+    }
+
+
+    private record CachedPrincipal(UserPrinciple principal, long expiresAt) {
+    }
+}
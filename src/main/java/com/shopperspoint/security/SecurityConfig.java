@@ -43,6 +43,9 @@ public class SecurityConfig {
                                 "/api/account/resendActivation",
                                 "/api/user/**",
                                 "/api/vendor/register/seller").permitAll()
+                        // content-addressed; ImageController only serves product images to anonymous requests,
+                        // profile photos and legacy /images/<type>/ paths stay authenticated
+                        .requestMatchers("/images/blobs/**", "/images/derivatives/**").permitAll()
                         .requestMatchers("/api/management/**").hasRole("ADMIN")
                         .requestMatchers("/api/vendor/**").hasRole("SELLER")
                         .requestMatchers("/api/account/**").hasRole("CUSTOMER")
@@ -4,11 +4,9 @@ import com.shopperspoint.entity.ActivationToken;
 import com.shopperspoint.exceptionhandler.InvalidTokenException;
 import com.shopperspoint.exceptionhandler.TokenExpiredException;
 import com.shopperspoint.repository.ActivationTokenRepo;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -71,12 +69,4 @@ public class ActivationTokenService {
         });
     }
 
-    @Scheduled(cron = "0 0 0 * * *")
-    @Transactional
-    public void deleteExpiredToken() {
-        log.info("Scheduled job started to delete expired tokens");
-        activationTokenRepo.deleteTokeByExpiryTime(LocalDateTime.now());
-        log.info("Expired tokens deleted successfully");
-    }
-
 }
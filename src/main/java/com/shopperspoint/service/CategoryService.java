@@ -1,25 +1,27 @@
 package com.shopperspoint.service;
 
 
+import com.shopperspoint.catalog.CategoryTree;
+import com.shopperspoint.catalog.CategoryTreeCache;
+import com.shopperspoint.catalog.FacetSnapshot;
+import com.shopperspoint.catalog.ProductFacetStore;
 import com.shopperspoint.dto.*;
 import com.shopperspoint.entity.Category;
+import com.shopperspoint.entity.CategoryClosure;
 import com.shopperspoint.entity.CategoryMetadataFieldValues;
-import com.shopperspoint.entity.Product;
-import com.shopperspoint.entity.ProductVariation;
 import com.shopperspoint.exceptionhandler.DuplicateEntryException;
 import com.shopperspoint.exceptionhandler.ResouceNotFound;
 import com.shopperspoint.repository.*;
+import com.shopperspoint.utill.CursorUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -29,23 +31,28 @@ import java.util.stream.Collectors;
 @Slf4j
 public class CategoryService {
 
+    private static final Set<String> KEYSET_COLUMNS = Set.of("id", "name");
+
     private final CategoryRepo categoryRepo;
+    private final CategoryClosureRepo categoryClosureRepo;
     private final CategoryMetadataFieldValuesRepo categoryMetadataFieldValuesRepo;
     private final CategoryMetadataFieldRepo categoryMetadataFieldRepo;
-    private final ProductRepo productRepo;
     private final MessageSource messageSource;
-    private final ProductVariationRepo productVariationRepo;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ProductFacetStore productFacetStore;
 
     @Autowired
-    public CategoryService(CategoryRepo categoryRepo, CategoryMetadataFieldValuesRepo categoryMetadataFieldValuesRepo,
-                           CategoryMetadataFieldRepo categoryMetadataFieldRepo, ProductRepo productRepo,
-                           ProductVariationRepo productVariationRepo, MessageSource messageSource) {
+    public CategoryService(CategoryRepo categoryRepo, CategoryClosureRepo categoryClosureRepo,
+                           CategoryMetadataFieldValuesRepo categoryMetadataFieldValuesRepo,
+                           CategoryMetadataFieldRepo categoryMetadataFieldRepo, MessageSource messageSource,
+                           CategoryTreeCache categoryTreeCache, ProductFacetStore productFacetStore) {
         this.categoryRepo = categoryRepo;
+        this.categoryClosureRepo = categoryClosureRepo;
         this.categoryMetadataFieldValuesRepo = categoryMetadataFieldValuesRepo;
         this.categoryMetadataFieldRepo = categoryMetadataFieldRepo;
-        this.productRepo = productRepo;
-        this.productVariationRepo = productVariationRepo;
         this.messageSource = messageSource;
+        this.categoryTreeCache = categoryTreeCache;
+        this.productFacetStore = productFacetStore;
     }
 
 
@@ -53,6 +60,7 @@ public class CategoryService {
     private String message;
 
 
+    @Transactional
     public Long createCategory(CategoryDTO categoryDTO) {
         String categoryName = categoryDTO.getName().trim();
         log.info("Creating category with name: '{}'", categoryName);
@@ -84,20 +92,17 @@ public class CategoryService {
         }
 
 
-        Category currentCategory = parentCategory;
-
         //check in upper
-        while (currentCategory != null) {
-            if (currentCategory.getName().equalsIgnoreCase(categoryName)) {
-                log.warn("Duplicate category '{}' found in parent hierarchy", categoryName);
-                throw new DuplicateEntryException("Category name already present in parent");
-            }
-
-            currentCategory = currentCategory.getParentCategory();
+        if (parentCategory != null && categoryRepo.existsAncestorNamed(parentCategoryId, categoryName, 0)) {
+            log.warn("Duplicate category '{}' found in parent hierarchy", categoryName);
+            throw new DuplicateEntryException("Category name already present in parent");
         }
 
-        // check in down
-        if (duplicateChildPresent(parentCategory, categoryName)) {
+        // check in down, a new root sits above every existing category
+        boolean childPresent = parentCategory != null
+                ? categoryRepo.existsDescendantNamed(parentCategoryId, categoryName)
+                : categoryRepo.existsByNameIgnoreCase(categoryName);
+        if (childPresent) {
             log.warn("Duplicate category '{}' found in children", categoryName);
             throw new DuplicateEntryException("Category name present in subcategories");
         }
@@ -117,29 +122,16 @@ public class CategoryService {
         category.setParentCategory(parentCategory);
 
         categoryRepo.save(category);
+        categoryClosureRepo.save(new CategoryClosure(category, category, 0));
+        if (parentCategory != null) {
+            categoryClosureRepo.insertPathsUnder(category.getId(), parentCategoryId);
+        }
+        categoryTreeCache.rebuildAfterCommit();
         log.info("Category '{}' created successfully with ID: {}", categoryName, category.getId());
         return category.getId();
 
     }
 
-    private boolean duplicateChildPresent(Category category, String name) {
-        List<Category> children = categoryRepo.findByParentCategory(category);
-
-        for (Category child : children) {
-            if (child.getName().equalsIgnoreCase(name)) {
-                log.error("Duplicate category name found in child category '{}'", name);
-                return true;
-            }
-
-            if (duplicateChildPresent(child, name)) {
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-
     public CategoryResponseDTO viewCategory(Long id) {
         log.info("Fetching details for category ID: {}", id);
         Category category = categoryRepo.findById(id).orElseThrow(
@@ -149,7 +141,7 @@ public class CategoryService {
                 }
         );
 
-        ParentCategoryDTO parentCategoryDTO = nestedParent(category.getParentCategory());
+        ParentCategoryDTO parentCategoryDTO = nestedParent(category);
 
         List<Category> childCategories = categoryRepo.findByParentCategoryId(id);
         // get child category
@@ -183,14 +175,15 @@ public class CategoryService {
     }
 
 
+    // whole ancestor chain in one statement, nested from the root down so the direct parent ends up outermost
     private ParentCategoryDTO nestedParent(Category category) {
-        if (category == null) return null;
+        if (category.getParentCategory() == null) return null;
 
-        return new ParentCategoryDTO(
-                category.getId(),
-                category.getName(),
-                nestedParent(category.getParentCategory())
-        );
+        ParentCategoryDTO parent = null;
+        for (Category ancestor : categoryRepo.findAncestors(category.getId())) {
+            parent = new ParentCategoryDTO(ancestor.getId(), ancestor.getName(), parent);
+        }
+        return parent;
     }
 
 
@@ -206,42 +199,57 @@ public class CategoryService {
             categoryPage = categoryRepo.findAll(pageable);
         }
 
-        return categoryPage.stream()
-                .map(
-                        category -> {
-                            ParentCategoryDTO parentCategoryDTO = nestedParent(category.getParentCategory());
-
-                            List<SimpleCategoryDTO> simpleCategoryDTOList = categoryRepo.findByParentCategory(category)
-                                    .stream().map(
-                                            child ->
-                                                    new SimpleCategoryDTO(
-                                                            child.getId(),
-                                                            child.getName()
-                                                    )
-                                    ).toList();
-
-
-                            List<MetadataFieldDTO> metadataFieldDTOS = category.getMetadataFieldValues()
-                                    .stream()
-                                    .map(values ->
-                                            new MetadataFieldDTO(
-                                                    values.getCategoryMetadataField().getName(),
-                                                    Arrays.stream(values.getFieldValues().split(","))
-                                                            .map(value -> value.trim()).toList()
-                                            )
-                                    ).toList();
-
-
-                            return new CategoryResponseDTO(
-                                    category.getId(),
-                                    category.getName(),
-                                    parentCategoryDTO,
-                                    simpleCategoryDTOList,
-                                    metadataFieldDTOS
-                            );
-
-                        }
+        return categoryPage.stream().map(this::toCategoryResponseDTO).toList();
+    }
+
+    public CursorPageDTO<CategoryResponseDTO> getAllCategories(int size, String sortBy, String order, String filter, String cursor) {
+        log.info("Scrolling categories with size: {}, sortBy: {}, order: {}, filter: {}", size, sortBy, order, filter);
+        Sort keysetSort = CursorUtils.keysetSort(sortBy, Sort.Direction.fromString(order), KEYSET_COLUMNS);
+        ScrollPosition position = CursorUtils.decodeKeyset(cursor, keysetSort);
+
+        Window<Category> categories;
+
+        if (filter != null && !filter.isBlank()) {
+            categories = categoryRepo.findByNameContainingIgnoreCase(filter, position, keysetSort, Limit.of(size));
+        } else {
+            categories = categoryRepo.findAllBy(position, keysetSort, Limit.of(size));
+        }
+
+        return new CursorPageDTO<>(categories.stream().map(this::toCategoryResponseDTO).toList(),
+                CursorUtils.encode(categories));
+    }
+
+    private CategoryResponseDTO toCategoryResponseDTO(Category category) {
+        ParentCategoryDTO parentCategoryDTO = nestedParent(category);
+
+        List<SimpleCategoryDTO> simpleCategoryDTOList = categoryRepo.findByParentCategory(category)
+                .stream().map(
+                        child ->
+                                new SimpleCategoryDTO(
+                                        child.getId(),
+                                        child.getName()
+                                )
                 ).toList();
+
+
+        List<MetadataFieldDTO> metadataFieldDTOS = category.getMetadataFieldValues()
+                .stream()
+                .map(values ->
+                        new MetadataFieldDTO(
+                                values.getCategoryMetadataField().getName(),
+                                Arrays.stream(values.getFieldValues().split(","))
+                                        .map(value -> value.trim()).toList()
+                        )
+                ).toList();
+
+
+        return new CategoryResponseDTO(
+                category.getId(),
+                category.getName(),
+                parentCategoryDTO,
+                simpleCategoryDTOList,
+                metadataFieldDTOS
+        );
     }
 
 
@@ -254,19 +262,14 @@ public class CategoryService {
         String newName = categoryUpdateDTO.getName().trim();
 
         // check in same parent chain no globally
-        Category parent = category.getParentCategory();
-        while (parent != null) {
-            if (parent.getName().equalsIgnoreCase(newName)) {
-                log.warn("Duplicate name '{}' in parent hierarchy during update", newName);
-                throw new DuplicateEntryException("Category name already present in parent");
-            }
-
-            parent = parent.getParentCategory();
+        if (categoryRepo.existsAncestorNamed(category.getId(), newName, 1)) {
+            log.warn("Duplicate name '{}' in parent hierarchy during update", newName);
+            throw new DuplicateEntryException("Category name already present in parent");
         }
 
         //check in children
 
-        if (duplicateChildPresent(category, newName)) {
+        if (categoryRepo.existsDescendantNamed(category.getId(), newName)) {
             log.warn("Duplicate name '{}' in child hierarchy during update", newName);
             throw new DuplicateEntryException("Category name already present in child");
         }
@@ -274,6 +277,7 @@ public class CategoryService {
 
         category.setName(categoryUpdateDTO.getName());
         categoryRepo.save(category);
+        categoryTreeCache.rebuildAfterCommit();
         return ResponseEntity
                 .status(HttpStatus.OK)
                 .body(new GenericResponse(messageSource.getMessage("category.update", null, locale), message, LocalDateTime.now()));
@@ -283,42 +287,33 @@ public class CategoryService {
 
     public List<SellerViewAllCategoryDTO> viewAllLeafCategory() {
         log.info("Fetching all leaf categories for seller view");
-        List<Category> allCategory = categoryRepo.findAll();
+        CategoryTree categoryTree = categoryTreeCache.get();
 
-        if (allCategory.isEmpty()) {
+        if (categoryTree.size() == 0) {
             throw new ResouceNotFound("No categories present");
         }
 
-        List<SellerViewAllCategoryDTO> leafResponseDTO = new ArrayList<>();
-
-        for (Category category : allCategory) {
-            List<Category> childrenList = getChildren(category.getId());
-
-            if (!childrenList.isEmpty()) {
-                continue; // slip if not leaf
-            }
+        Map<Long, List<CategoryMetadataFieldValues>> metadataByCategory = categoryMetadataFieldValuesRepo.findAllWithField()
+                .stream()
+                .collect(Collectors.groupingBy(value -> value.getId().getCategoryId()));
 
-            // build parent chain
+        List<SellerViewAllCategoryDTO> leafResponseDTO = new ArrayList<>();
 
-            List<SellerViewAllCategoryDTO.ParentCategoryDTO> parentCategoryDTOList = new ArrayList<>();
-            Category current = category.getParentCategory();
+        for (Long leafId : categoryTree.getLeafIds()) {
 
-            while (current != null) {
-                parentCategoryDTOList.add(0,  // to add parent in first place
-                        new SellerViewAllCategoryDTO.ParentCategoryDTO(
-                                current.getId(),
-                                current.getName()));
+            // build parent chain, root first
 
-                current = current.getParentCategory();
-            }
+            List<SellerViewAllCategoryDTO.ParentCategoryDTO> parentCategoryDTOList = categoryTree.getAncestorIds(leafId)
+                    .stream()
+                    .map(parentId -> new SellerViewAllCategoryDTO.ParentCategoryDTO(
+                            parentId,
+                            categoryTree.getName(parentId)))
+                    .toList();
 
 
             // get metadata values
-            List<CategoryMetadataFieldValues> metadataFieldValuesList = categoryMetadataFieldValuesRepo.findByCategoryId(
-                    category.getId()
-            );
-
-            List<MetadataFieldWithIdDTO> metadataFieldDTOS = metadataFieldValuesList.stream()
+            List<MetadataFieldWithIdDTO> metadataFieldDTOS = metadataByCategory.getOrDefault(leafId, List.of())
+                    .stream()
                     .map(value ->
 
                             new MetadataFieldWithIdDTO(
@@ -326,8 +321,6 @@ public class CategoryService {
                                     value.getCategoryMetadataField().getName(),
                                     Arrays.stream(
                                             value.getFieldValues().split(",")
-                                    ).map(
-                                            metaValue -> metaValue.toString()
                                     ).toList()
                             )
                     ).toList();
@@ -337,8 +330,8 @@ public class CategoryService {
 
 
             SellerViewAllCategoryDTO responseDTO = new SellerViewAllCategoryDTO();
-            responseDTO.setCategoryId(category.getId());
-            responseDTO.setCategoryName(category.getName());
+            responseDTO.setCategoryId(leafId);
+            responseDTO.setCategoryName(categoryTree.getName(leafId));
             responseDTO.setParentChain(parentCategoryDTOList);
             responseDTO.setMetadataFields(metadataFieldDTOS);
 
@@ -352,15 +345,6 @@ public class CategoryService {
 
     }
 
-    private List<Category> getChildren(Long categoryId) {
-        Category category = categoryRepo.findById(categoryId)
-                .orElseThrow(
-                        () -> new ResouceNotFound("Category id not found")
-                );
-
-        return categoryRepo.findByParentCategory(category);
-    }
-
 
     public List<CustomerViewCategoryDTO> viewCategoryCustomer(Long id) {
         log.info("Fetching categories for customer view with parent ID: {}", id);
@@ -387,24 +371,13 @@ public class CategoryService {
 
     public CategoryFilterResponseDTO getAllFilterCategoryDetails(Long categoryId) {
         log.info("Getting filter details for category ID: {}", categoryId);
-        Category category = categoryRepo.findById(categoryId).orElseThrow(
-                () -> new ResouceNotFound("category id not found")
-        );
-
-
-        // check id if it has children or not if not then add the given id
-
-        List<Long> categoryIds = new ArrayList<>();
-        List<Category> childCategories = categoryRepo.findByParentCategoryId(categoryId);
+        CategoryTree categoryTree = categoryTreeCache.get();
 
-        if (childCategories == null && childCategories.isEmpty()) {
-            categoryIds.add(category.getId());
-        } else {
-            for (Category child : childCategories) {
-                categoryIds.add(child.getId());
-            }
+        if (!categoryTree.contains(categoryId)) {
+            throw new ResouceNotFound("category id not found");
         }
 
+
         // get the metadata field for given category
         List<CategoryMetadataFieldValues> metadataList = categoryMetadataFieldValuesRepo.findByCategoryId(categoryId);
 
@@ -418,39 +391,19 @@ public class CategoryService {
                 )).toList();
 
 
-        // fetch products for given category
-
-        List<Product> products = productRepo.findByCategoryIdIn(categoryIds);
-
-        Set<String> brands = products.stream()
-                .map(product -> product.getBrand())
-                .filter(brand -> brand != null)
-                .collect(Collectors.toSet());
-
-
-        // fetch price from product variation
-        List<Long> productIds = products.stream().map(product -> product.getId()).toList();
-
-        List<ProductVariation> productVariations = productVariationRepo.findByProductIdIn(productIds);
-
-        Double minPrice = productVariations.stream()
-                .mapToDouble(productVariation -> productVariation.getPrice())
-                .min()
-                .orElse(0);
-
-        Double maxPrice = productVariations.stream()
-                .mapToDouble(productVariation -> productVariation.getPrice())
-                .max()
-                .orElse(0);
+        // brand, price and metadata facets merged from every leaf below the category
+        FacetSnapshot facets = productFacetStore.facetsFor(categoryTree, categoryId);
 
 
         return new CategoryFilterResponseDTO(
-                category.getId(),
-                category.getName(),
-                brands,
+                categoryId,
+                categoryTree.getName(categoryId),
+                facets.brandCounts().keySet(),
                 metadataFieldWithIdDTOS,
-                minPrice,
-                maxPrice
+                facets.minPrice() == null ? 0 : facets.minPrice().doubleValue(),
+                facets.maxPrice() == null ? 0 : facets.maxPrice().doubleValue(),
+                facets.brandCounts(),
+                facets.metadataValueCounts()
         );
 
     }
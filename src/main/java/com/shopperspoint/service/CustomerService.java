@@ -8,21 +8,21 @@ import com.shopperspoint.entity.Customer;
 import com.shopperspoint.entity.Role;
 import com.shopperspoint.entity.User;
 import com.shopperspoint.exceptionhandler.*;
-import com.shopperspoint.jwt.JwtUtil;
+import com.shopperspoint.image.ImageDerivativeService;
+import com.shopperspoint.image.ImageStorageService;
 import com.shopperspoint.repository.ActivationTokenRepo;
 import com.shopperspoint.repository.AddressRepo;
 import com.shopperspoint.repository.CustomerRepo;
 import com.shopperspoint.repository.UserRepo;
+import com.shopperspoint.security.PrincipalCache;
+import com.shopperspoint.utill.CursorUtils;
 import com.shopperspoint.utill.ImageUtils;
-import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -37,6 +37,8 @@ import java.util.*;
 @Slf4j
 public class CustomerService {
 
+    private static final Set<String> KEYSET_COLUMNS = Set.of("id", "email", "firstName");
+
     private final UserRepo userRepo;
     private final PasswordEncoder passwordEncoder;
     private final ActivationTokenService tokenService;
@@ -44,15 +46,21 @@ public class CustomerService {
     private final AuthenticationManager authenticationManager;
     private final ActivationTokenRepo tokenRepo;
     private final CustomerRepo customerRepo;
-    private final JwtUtil jwtUtil;
+    private final PrincipalCache principalCache;
+    private final TokenEpochService tokenEpochService;
     private final AddressRepo addressRepo;
     private final MessageSource messageSource;
+    private final ImageStorageService imageStorageService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ImageUtils imageUtils;
 
     @Autowired
     public CustomerService(UserRepo userRepo, PasswordEncoder passwordEncoder, ActivationTokenService tokenService,
                            EmailService emailService, AuthenticationManager authenticationManager,
                            ActivationTokenRepo tokenRepo, CustomerRepo customerRepo,
-                           JwtUtil jwtUtil, AddressRepo addressRepo, MessageSource messageSource) {
+                           PrincipalCache principalCache, AddressRepo addressRepo, MessageSource messageSource,
+                           TokenEpochService tokenEpochService, ImageStorageService imageStorageService,
+                           ImageDerivativeService imageDerivativeService, ImageUtils imageUtils) {
         this.userRepo = userRepo;
         this.passwordEncoder = passwordEncoder;
         this.tokenService = tokenService;
@@ -60,9 +68,13 @@ public class CustomerService {
         this.authenticationManager = authenticationManager;
         this.tokenRepo = tokenRepo;
         this.customerRepo = customerRepo;
-        this.jwtUtil = jwtUtil;
+        this.principalCache = principalCache;
+        this.tokenEpochService = tokenEpochService;
         this.addressRepo = addressRepo;
         this.messageSource = messageSource;
+        this.imageStorageService = imageStorageService;
+        this.imageDerivativeService = imageDerivativeService;
+        this.imageUtils = imageUtils;
     }
 
 
@@ -158,6 +170,7 @@ public class CustomerService {
 
         user.setIsActive(true);
         userRepo.save(user);
+        principalCache.evictAfterCommit(user.getEmail());
         tokenRepo.deleteByToken(token);
 
         log.info("Account activated for email: {}", email);
@@ -211,57 +224,46 @@ public class CustomerService {
             throw new UserNotFoundException("No customer is present");
         }
 
-        return customers.stream().map(
-                user -> (
-                        new CustomerResponseDTO(
-                                user.getId(),
-                                user.getFirstName() +
-                                        (user.getMiddleName() != null ? " " + user.getMiddleName() : "") +
-                                        " " + user.getLastName(),
-                                user.getEmail(),
-                                user.getIsActive()
-                        )
-                )
-        ).toList();
+        return customers.stream().map(this::toCustomerResponseDTO).toList();
 
     }
 
+    public CursorPageDTO<CustomerResponseDTO> getAllCustomer(int size, String sort, String emailFilter, String cursor) {
+        Sort keysetSort = CursorUtils.keysetSort(sort, Sort.Direction.ASC, KEYSET_COLUMNS);
+        ScrollPosition position = CursorUtils.decodeKeyset(cursor, keysetSort);
 
-    private Customer getLoggedinCustomer(HttpServletRequest request) {
-        log.info("Fetching logged-in customer from token");
-        String token = null;
-        String email = null;
-
-        Cookie[] cookies = request.getCookies();
-        if (cookies != null) {
-            for (Cookie cookie : cookies) {
-                if ("accessToken".equals(cookie.getName())) {
-                    token = cookie.getValue();
-                    break;
-                }
-            }
+        Window<Customer> customers;
+        if (emailFilter != null) {
+            customers = customerRepo.findByRolesAuthorityAndEmailContaining("CUSTOMER", emailFilter, position, keysetSort, Limit.of(size));
+        } else {
+            customers = customerRepo.findByRolesAuthority("CUSTOMER", position, keysetSort, Limit.of(size));
         }
 
-        if (token == null) {
-            log.error("Access token is missing in cookies");
-            throw new AccessDeniedException("Token is not present in cookies");
-        }
+        return new CursorPageDTO<>(customers.stream().map(this::toCustomerResponseDTO).toList(), CursorUtils.encode(customers));
+    }
 
-        email = jwtUtil.extractUserName(token);
+    private CustomerResponseDTO toCustomerResponseDTO(Customer user) {
+        return new CustomerResponseDTO(
+                user.getId(),
+                user.getFirstName() +
+                        (user.getMiddleName() != null ? " " + user.getMiddleName() : "") +
+                        " " + user.getLastName(),
+                user.getEmail(),
+                user.getIsActive()
+        );
+    }
 
-        if (email == null) {
-            log.error("Token is invalid or expired");
-            throw new AccessDeniedException("Invalid token");
-        }
 
-        Customer customer = customerRepo.findByEmail(email);
+    private Customer getLoggedinCustomer(HttpServletRequest request) {
+        log.info("Fetching logged-in customer from security context");
+        UserPrinciple principal = UserPrinciple.current();
 
-        if (customer == null) {
-            log.error("Customer not found for email: {}", email);
+        if (principal.getType() != UserPrinciple.Type.CUSTOMER) {
+            log.error("Customer not found for email: {}", principal.getUsername());
             throw new UserNotFoundException("User not found");
         }
-        log.info("Customer fetched successfully with email: {}", email);
-        return customer;
+        log.info("Customer fetched successfully with email: {}", principal.getUsername());
+        return customerRepo.getReferenceById(principal.getId());
     }
 
 
@@ -269,7 +271,7 @@ public class CustomerService {
         log.info("Fetching profile for logged-in customer");
         Customer customer = getLoggedinCustomer(request);
 
-        String imageUrl = ImageUtils.getImage(customer.getId(), type);
+        String imageUrl = imageUtils.getImage(customer.getId(), type);
         log.info("Customer profile fetched: ID = {}, Name = {} {}", customer.getId(), customer.getFirstName(), customer.getLastName());
         return new CustomerViewProfileDTO(
                 customer.getId(),
@@ -318,7 +320,8 @@ public class CustomerService {
 
         if (customerUpdateProfileDTO.getImage() != null) {
             log.debug("Uploading image for customer ID: {}", customer.getId());
-            ImageUtils.uploadImage(customerUpdateProfileDTO.getImage(), customer.getId(), type);
+            imageDerivativeService.generate(
+                    imageStorageService.store(customerUpdateProfileDTO.getImage(), type, customer.getId(), ImageStorageService.PRIMARY_SLOT));
         }
 
         userRepo.save(customer);
@@ -337,7 +340,9 @@ public class CustomerService {
 
         customer.setPassword(passwordEncoder.encode(passwordDTO.getPassword()));
         customer.setPasswordUpdatedDate(LocalDateTime.now());
+        tokenEpochService.revokeAll(customer);
         userRepo.save(customer);
+        principalCache.evictAfterCommit(customer.getEmail());
         emailService.notifyPasswordChanged(customer.getEmail());
         log.info("Password updated successfully for customer ID: {}", customer.getId());
         return ResponseEntity
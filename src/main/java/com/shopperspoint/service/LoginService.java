@@ -2,7 +2,6 @@ package com.shopperspoint.service;
 
 
 import com.shopperspoint.dto.GenericResponse;
-import com.shopperspoint.dto.UserPrinciple;
 import com.shopperspoint.email.EmailService;
 import com.shopperspoint.entity.User;
 import com.shopperspoint.exceptionhandler.BadRequestException;
@@ -10,6 +9,9 @@ import com.shopperspoint.exceptionhandler.TokenExpiredException;
 import com.shopperspoint.exceptionhandler.UserNotFoundException;
 import com.shopperspoint.jwt.JwtUtil;
 import com.shopperspoint.repository.UserRepo;
+import com.shopperspoint.security.LoginAttemptTracker;
+import com.shopperspoint.security.PasswordHashingExecutor;
+import com.shopperspoint.security.PrincipalCache;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
@@ -18,12 +20,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Locale;
@@ -32,21 +29,27 @@ import java.util.Locale;
 @Slf4j
 public class LoginService {
     private final UserRepo userRepo;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashingExecutor;
     private final EmailService emailService;
-    private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
     private final MessageSource messageSource;
+    private final PrincipalCache principalCache;
+    private final TokenEpochService tokenEpochService;
+    private final LoginAttemptTracker loginAttemptTracker;
 
     @Autowired
-    public LoginService(UserRepo userRepo, PasswordEncoder passwordEncoder, EmailService emailService,
-                        AuthenticationManager authenticationManager, JwtUtil jwtUtil, MessageSource messageSource) {
+    public LoginService(UserRepo userRepo, PasswordHashingExecutor passwordHashingExecutor, EmailService emailService,
+                        JwtUtil jwtUtil, MessageSource messageSource,
+                        PrincipalCache principalCache, TokenEpochService tokenEpochService,
+                        LoginAttemptTracker loginAttemptTracker) {
         this.userRepo = userRepo;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingExecutor = passwordHashingExecutor;
         this.emailService = emailService;
-        this.authenticationManager = authenticationManager;
         this.jwtUtil = jwtUtil;
         this.messageSource = messageSource;
+        this.principalCache = principalCache;
+        this.tokenEpochService = tokenEpochService;
+        this.loginAttemptTracker = loginAttemptTracker;
     }
 
     @Value("${refresh.expiration}")
@@ -58,7 +61,7 @@ public class LoginService {
     @Value("${success.message}")
     private String message;
 
-    @Transactional(noRollbackFor = {TokenExpiredException.class, UserNotFoundException.class})
+    // no surrounding transaction: a login can wait in the hashing queue and must not hold a connection meanwhile
     public ResponseEntity<GenericResponse> userLogin(String email, String password, HttpServletResponse response, Locale locale) {
         log.info("Attempting login for user with email: {}", email);
 
@@ -74,65 +77,59 @@ public class LoginService {
         }
 
         if (user.getPasswordUpdatedDate().plusDays(day).isBefore(LocalDateTime.now())) {
-            user.setIsExpired(true);
+            userRepo.markPasswordExpired(user.getId());
             log.error("Password expired for user with email {}", email);
             throw new BadRequestException("Password expired, please reset you password");
         }
 
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
-            if (Boolean.TRUE.equals(user.getIsLocked())) {
+        // attempt counts and locks live in the tracker and reach app_user in batched writes
+        boolean locked = Boolean.TRUE.equals(user.getIsLocked()) || loginAttemptTracker.isLocked(email);
+
+        if (!passwordHashingExecutor.matches(password, user.getPassword())) {
+            if (locked) {
                 log.error("Account is locked for user with email {}", email);
                 throw new BadRequestException("Account is locked");
             }
 
-            int newAttempt = user.getInvalidAttemptCount() + 1;
-            user.setInvalidAttemptCount(newAttempt);
+            LoginAttemptTracker.Outcome attempt = loginAttemptTracker.recordFailure(user);
 
-            if (newAttempt >= 3) {
-                emailService.sendEmailForAccountLocked(email);
-                user.setIsLocked(true);
+            if (attempt.locked()) {
+                if (attempt.newlyLocked()) {
+                    emailService.sendEmailForAccountLocked(email);
+                    principalCache.evict(email);
+                }
                 log.error("Account locked due to multiple invalid attempts for user with email {}", email);
                 throw new TokenExpiredException("Account has been locked due to multiple invalid attempt");
             }
 
-            userRepo.save(user);
-
-            log.warn("Invalid password attempt #{} for user with email {}", newAttempt, email);
+            int attemptsLeft = loginAttemptTracker.getMaxAttempts() - attempt.failures();
+            log.warn("Invalid password attempt #{} for user with email {}", attempt.failures(), email);
             return ResponseEntity
                     .status(HttpStatus.UNAUTHORIZED)
-                    .body(new GenericResponse("Invalid password.You have " + (3 - newAttempt) + " attempt left before your account gets locked", "INVALID_CREDENTIALS", LocalDateTime.now()));
+                    .body(new GenericResponse("Invalid password.You have " + attemptsLeft + " attempt left before your account gets locked", "INVALID_CREDENTIALS", LocalDateTime.now()));
 
         }
 
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(email, password)
-        );
-
-        UserPrinciple userPrinciple = (UserPrinciple) authentication.getPrincipal();
-
-
-        if (!userPrinciple.isAccountNonLocked()) {
+        // the password was verified above, going through the authentication manager would hash it a second time
+        if (locked) {
             log.error("Account is locked for user with email {}", email);
             throw new BadRequestException("You account is locked");
         }
 
 
-        if (user.getInvalidAttemptCount() > 0 && user.getInvalidAttemptCount() < 3) {
-            user.setInvalidAttemptCount(0);
-            userRepo.save(user);
-            log.info("Invalid attempt count reset for user with email {}", email);
-        }
+        loginAttemptTracker.recordSuccess(user);
 
-        if (userPrinciple.isEnabled()) {
+        if (!Boolean.TRUE.equals(user.getIsActive())) {
             throw new BadRequestException("Account is not active");
         }
 
 
-        String access = jwtUtil.generateToken(email, "access");
+        long epoch = tokenEpochService.currentEpoch(user);
+        String access = jwtUtil.generateToken(email, "access", user.getId(), epoch);
 
-        String refresh = jwtUtil.generateToken(email, "refresh");
+        String refresh = jwtUtil.generateToken(email, "refresh", user.getId(), epoch);
 
         Cookie accessTokenCookie = new Cookie("accessToken", access);
         accessTokenCookie.setHttpOnly(true);
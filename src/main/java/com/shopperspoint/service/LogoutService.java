@@ -2,13 +2,12 @@ package com.shopperspoint.service;
 
 
 import com.shopperspoint.dto.GenericResponse;
-import com.shopperspoint.entity.BlacklistedToken;
 import com.shopperspoint.entity.User;
 import com.shopperspoint.exceptionhandler.InvalidTokenException;
 import com.shopperspoint.exceptionhandler.UserNotFoundException;
 import com.shopperspoint.jwt.JwtUtil;
-import com.shopperspoint.repository.BlacklistTokenRepo;
 import com.shopperspoint.repository.UserRepo;
+import com.shopperspoint.security.PrincipalCache;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -19,6 +18,7 @@ import org.springframework.context.MessageSource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Locale;
@@ -26,17 +26,20 @@ import java.util.Locale;
 @Service
 @Slf4j
 public class LogoutService {
-    private final BlacklistTokenRepo blacklistTokenRepo;
     private final UserRepo userRepo;
     private final JwtUtil jwtUtil;
     private final MessageSource messageSource;
+    private final PrincipalCache principalCache;
+    private final TokenEpochService tokenEpochService;
 
     @Autowired
-    public LogoutService(BlacklistTokenRepo blacklistTokenRepo, UserRepo userRepo, JwtUtil jwtUtil, MessageSource messageSource) {
-        this.blacklistTokenRepo = blacklistTokenRepo;
+    public LogoutService(UserRepo userRepo, JwtUtil jwtUtil, MessageSource messageSource,
+                         PrincipalCache principalCache, TokenEpochService tokenEpochService) {
         this.userRepo = userRepo;
         this.jwtUtil = jwtUtil;
         this.messageSource = messageSource;
+        this.principalCache = principalCache;
+        this.tokenEpochService = tokenEpochService;
     }
 
     @Value("${age.cookie}")
@@ -45,9 +48,9 @@ public class LogoutService {
     @Value("${success.message}")
     private String message;
 
+    @Transactional
     public ResponseEntity<GenericResponse> logout(HttpServletRequest request, HttpServletResponse response, Locale locale) {
         String accessToken = getCookieValue(request, "accessToken");
-        String refreshToken = getCookieValue(request, "refreshToken");
         String email = jwtUtil.extractUserName(accessToken);
         User user = userRepo.findByEmail(jwtUtil.extractUserName(accessToken)).orElseThrow(
                 () -> new UserNotFoundException("User not found")
@@ -55,12 +58,10 @@ public class LogoutService {
 
         log.info("User with email {} is attempting to log out", email);
 
-        if (accessToken != null && !blacklistTokenRepo.existsByAccessToken(accessToken) &&
-                refreshToken != null && !blacklistTokenRepo.existsByRefreshToken(refreshToken)) {
-            blacklistTokenRepo.save(new BlacklistedToken(null, accessToken, refreshToken, LocalDateTime.now(), user));
-            log.info("Tokens for user with email {} added to blacklist", email);
-        }
-
+        // one epoch bump revokes every access and refresh token the user holds, on all devices
+        tokenEpochService.revokeAll(user);
+        userRepo.save(user);
+        principalCache.evictAfterCommit(email);
 
         Cookie expiredAccess = new Cookie("accessToken", null);
         expiredAccess.setMaxAge(age);
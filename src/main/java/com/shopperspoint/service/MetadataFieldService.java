@@ -1,6 +1,7 @@
 package com.shopperspoint.service;
 
 
+import com.shopperspoint.catalog.CategoryMetadataValidatorRegistry;
 import com.shopperspoint.dto.CategoryMetadataFieldDTO;
 import com.shopperspoint.dto.CategoryMetadataFieldValuesDTO;
 import com.shopperspoint.dto.GenericResponse;
@@ -42,14 +43,17 @@ public class MetadataFieldService {
     private final CategoryMetadataFieldRepo categoryMetadataFieldRepo;
     private final CategoryRepo categoryRepo;
     private final CategoryMetadataFieldValuesRepo categoryMetadataFieldValuesRepo;
+    private final CategoryMetadataValidatorRegistry categoryMetadataValidatorRegistry;
 
     @Autowired
     public MetadataFieldService(CategoryMetadataFieldRepo categoryMetadataFieldRepo,
                                 CategoryRepo categoryRepo,
-                                CategoryMetadataFieldValuesRepo categoryMetadataFieldValuesRepo) {
+                                CategoryMetadataFieldValuesRepo categoryMetadataFieldValuesRepo,
+                                CategoryMetadataValidatorRegistry categoryMetadataValidatorRegistry) {
         this.categoryMetadataFieldRepo = categoryMetadataFieldRepo;
         this.categoryRepo = categoryRepo;
         this.categoryMetadataFieldValuesRepo = categoryMetadataFieldValuesRepo;
+        this.categoryMetadataValidatorRegistry = categoryMetadataValidatorRegistry;
     }
 
     @Value("${success.message}")
@@ -154,6 +158,7 @@ public class MetadataFieldService {
             metadataFieldValues.setCategory(category);
 
             categoryMetadataFieldValuesRepo.save(metadataFieldValues);
+            categoryMetadataValidatorRegistry.invalidateAfterCommit(category.getId());
             log.info("Metadata values added successfully for category id: {} and metadata field id: {}", categoryMetadataFieldValuesDTO.getCategoryId(), metadataFieldId);
         }
 
@@ -237,6 +242,7 @@ public class MetadataFieldService {
 
             category.setFieldValues(allValues.toLowerCase());
             categoryMetadataFieldValuesRepo.save(category);
+            categoryMetadataValidatorRegistry.invalidateAfterCommit(metadataFieldValuesDTO.getCategoryId());
             log.info("Metadata field values updated successfully for category id: {} and metadata field id: {}", metadataFieldValuesDTO.getCategoryId(), metadataFieldId);
 
         }
@@ -3,6 +3,7 @@ package com.shopperspoint.service;
 import com.shopperspoint.dto.UserPrinciple;
 import com.shopperspoint.entity.User;
 import com.shopperspoint.repository.UserRepo;
+import com.shopperspoint.security.PrincipalCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -14,10 +15,12 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class MyUserDetailsService implements UserDetailsService {
     private final UserRepo userRepo;
+    private final PrincipalCache principalCache;
 
     @Autowired
-    public MyUserDetailsService(UserRepo userRepo) {
+    public MyUserDetailsService(UserRepo userRepo, PrincipalCache principalCache) {
         this.userRepo = userRepo;
+        this.principalCache = principalCache;
     }
 
 
@@ -30,4 +33,9 @@ public class MyUserDetailsService implements UserDetailsService {
         return new UserPrinciple(user);
     }
 
+    // request authentication only needs id, type and flags; the password hash never goes into the cache
+    public UserPrinciple loadAuthenticatedUser(String email) {
+        return principalCache.get(email, key -> ((UserPrinciple) loadUserByUsername(key)).withoutPassword());
+    }
+
 }
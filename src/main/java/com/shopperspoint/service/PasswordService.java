@@ -9,6 +9,8 @@ import com.shopperspoint.exceptionhandler.BadRequestException;
 import com.shopperspoint.exceptionhandler.UserNotFoundException;
 import com.shopperspoint.repository.PasswordTokenRepo;
 import com.shopperspoint.repository.UserRepo;
+import com.shopperspoint.security.LoginAttemptTracker;
+import com.shopperspoint.security.PrincipalCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -29,18 +31,27 @@ public class PasswordService {
     private final ResetPasswordTokenService tokenService;
     private final EmailService emailService;
     private final PasswordEncoder encoder;
+    private final PrincipalCache principalCache;
+    private final TokenEpochService tokenEpochService;
+    private final LoginAttemptTracker loginAttemptTracker;
 
     @Autowired
     public PasswordService(PasswordTokenRepo passwordTokenRepo,
                            UserRepo userRepo,
                            ResetPasswordTokenService tokenService,
                            EmailService emailService,
-                           PasswordEncoder encoder) {
+                           PasswordEncoder encoder,
+                           PrincipalCache principalCache,
+                           TokenEpochService tokenEpochService,
+                           LoginAttemptTracker loginAttemptTracker) {
         this.passwordTokenRepo = passwordTokenRepo;
         this.userRepo = userRepo;
         this.tokenService = tokenService;
         this.emailService = emailService;
         this.encoder = encoder;
+        this.principalCache = principalCache;
+        this.tokenEpochService = tokenEpochService;
+        this.loginAttemptTracker = loginAttemptTracker;
     }
 
 
@@ -111,7 +122,10 @@ public class PasswordService {
         user.setIsLocked(false);
         user.setPasswordUpdatedDate(LocalDateTime.now());
         user.setIsExpired(false);
+        tokenEpochService.revokeAll(user);
         userRepo.save(user);
+        loginAttemptTracker.reset(email);
+        principalCache.evictAfterCommit(email);
 
         tokenService.deleteOldToken(email);
         log.info("Password successfully reset for user: {}", email);
@@ -2,61 +2,94 @@ package com.shopperspoint.service;
 
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopperspoint.catalog.CategoryTree;
+import com.shopperspoint.catalog.CategoryMetadataValidatorRegistry;
+import com.shopperspoint.catalog.CategoryTreeCache;
+import com.shopperspoint.catalog.ProductFacetStore;
+import com.shopperspoint.catalog.VariationFacet;
+import com.shopperspoint.catalog.VariationMetadata;
+import com.shopperspoint.catalog.VariationMetadataCache;
 import com.shopperspoint.dto.*;
-import com.shopperspoint.email.EmailService;
+import com.shopperspoint.email.NotificationAggregator;
 import com.shopperspoint.entity.*;
 import com.shopperspoint.exceptionhandler.*;
-import com.shopperspoint.repository.CategoryMetadataFieldValuesRepo;
+import com.shopperspoint.image.ImageDerivative;
+import com.shopperspoint.image.ImageDerivativeService;
+import com.shopperspoint.image.ImageIngestionService;
+import com.shopperspoint.image.ImageStorageService;
+import com.shopperspoint.image.ImageUpload;
 import com.shopperspoint.repository.CategoryRepo;
 import com.shopperspoint.repository.ProductRepo;
 import com.shopperspoint.repository.ProductVariationRepo;
+import com.shopperspoint.search.IndexedProduct;
+import com.shopperspoint.search.ProductSearchIndex;
+import com.shopperspoint.utill.CursorUtils;
 import com.shopperspoint.utill.ImageUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
 @Slf4j
 public class ProductService {
 
+    // name and brand are required on every product write, price and quantity are not-null columns
+    private static final Set<String> PRODUCT_KEYSET_COLUMNS = Set.of("id", "name", "brand");
+    private static final Set<String> VARIATION_KEYSET_COLUMNS = Set.of("id", "price", "quantityAvailable");
+
     private final ProductRepo productRepo;
     private final CategoryRepo categoryRepo;
     private final ProductVariationRepo productVariationRepo;
-    private final CategoryMetadataFieldValuesRepo categoryMetadataFieldValuesRepo;
+    private final CategoryMetadataValidatorRegistry categoryMetadataValidatorRegistry;
     private final SellerService sellerService;
-    private final EmailService emailService;
-    private final ObjectMapper objectMapper;
+    private final NotificationAggregator notificationAggregator;
+    private final VariationMetadataCache variationMetadataCache;
     private final MessageSource messageSource;
+    private final ProductSearchIndex productSearchIndex;
+    private final CategoryTreeCache categoryTreeCache;
+    private final ProductFacetStore productFacetStore;
+    private final ProductViewAssembler productViewAssembler;
+    private final ImageIngestionService imageIngestionService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ImageUtils imageUtils;
 
     @Autowired
     public ProductService(ProductRepo productRepo, CategoryRepo categoryRepo,
-                          ProductVariationRepo productVariationRepo, CategoryMetadataFieldValuesRepo categoryMetadataFieldValuesRepo,
-                          SellerService sellerService, EmailService emailService,
-                          ObjectMapper objectMapper, MessageSource messageSource) {
+                          ProductVariationRepo productVariationRepo, CategoryMetadataValidatorRegistry categoryMetadataValidatorRegistry,
+                          SellerService sellerService, NotificationAggregator notificationAggregator,
+                          VariationMetadataCache variationMetadataCache, MessageSource messageSource,
+                          ProductSearchIndex productSearchIndex, CategoryTreeCache categoryTreeCache,
+                          ProductFacetStore productFacetStore, ProductViewAssembler productViewAssembler,
+                          ImageIngestionService imageIngestionService, ImageDerivativeService imageDerivativeService,
+                          ImageUtils imageUtils) {
         this.productRepo = productRepo;
         this.categoryRepo = categoryRepo;
         this.productVariationRepo = productVariationRepo;
-        this.categoryMetadataFieldValuesRepo = categoryMetadataFieldValuesRepo;
+        this.categoryMetadataValidatorRegistry = categoryMetadataValidatorRegistry;
         this.sellerService = sellerService;
-        this.emailService = emailService;
-        this.objectMapper = objectMapper;
+        this.notificationAggregator = notificationAggregator;
+        this.variationMetadataCache = variationMetadataCache;
         this.messageSource = messageSource;
+        this.productSearchIndex = productSearchIndex;
+        this.categoryTreeCache = categoryTreeCache;
+        this.productFacetStore = productFacetStore;
+        this.productViewAssembler = productViewAssembler;
+        this.imageIngestionService = imageIngestionService;
+        this.imageDerivativeService = imageDerivativeService;
+        this.imageUtils = imageUtils;
     }
 
     @Value("${email.name}")
@@ -71,9 +104,6 @@ public class ProductService {
     @Value(("${image.product.variation.secondary}"))
     private String secondary;
 
-    @Value(("${id.value}"))
-    private Long value;
-
     @Value("${success.message}")
     private String message;
 
@@ -122,10 +152,12 @@ public class ProductService {
 
 
         productRepo.save(product);
+        productSearchIndex.index(product);
+        productFacetStore.addProduct(product, List.of());
         log.info("Product saved successfully: {}", product.getId());
 
-        emailService.sendNewProductEmailToAdmin(emailName, product);
-        emailService.sendNewProductEmailToAdmin(adminEmail, product);
+        notificationAggregator.newProductPending(emailName, product);
+        notificationAggregator.newProductPending(adminEmail, product);
 
         return ResponseEntity
                 .status(HttpStatus.OK)
@@ -190,7 +222,10 @@ public class ProductService {
             throw new BadRequestException("This user is not allowed to delete this product");
         }
 
+        List<ProductVariation> variations = productVariationRepo.findByProductId(productId);
         productRepo.deleteById(productId);
+        productSearchIndex.remove(productId);
+        productFacetStore.removeProduct(product, variations);
         log.info("Product deleted: {}", productId);
 
         return ResponseEntity
@@ -248,6 +283,7 @@ public class ProductService {
         }
 
         productRepo.save(product);
+        productSearchIndex.index(product);
         log.info("Product updated: {}", productId);
 
         return ResponseEntity
@@ -263,37 +299,68 @@ public class ProductService {
             throw new UserNotFoundException("Seller not found");
         }
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(order), sort));
-
-        Page<Product> productPage;
+        Sort.Direction direction = Sort.Direction.fromString(order);
+        List<Product> products;
 
         if (filter != null && !filter.isBlank()) {
             log.info("Fetching seller products with filter: {}", filter);
-            productPage = productRepo.findProductsBySeller(seller.getId(), filter, pageable);
+            Long sellerId = seller.getId();
+            products = findIndexedProducts(productSearchIndex.search(filter,
+                    ProductSearchIndex.NAME | ProductSearchIndex.BRAND,
+                    document -> sellerId.equals(document.sellerId()),
+                    sort, direction.isAscending(), page, size));
         } else {
             log.info("Fetching all products for sellerId: {}", seller.getId());
-            productPage = productRepo.findBySellerIdAndIsDeletedFalse(seller.getId(), pageable);
-        }
-
-
-        return productPage.stream().map(
-                product ->
-                        new ProductResponseDTO(
-                                product.getId(),
-                                product.getName(),
-                                product.getBrand(),
-                                product.getDescription(),
-                                product.getIsCancellable(),
-                                product.getIsReturnable(),
-                                product.getIsActive(),
-                                product.getCategory().getId(),
-                                product.getCategory().getName()
-                        )
-        ).toList();
+            Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sort));
+            products = productRepo.findBySellerIdAndIsDeletedFalse(seller.getId(), pageable).getContent();
+        }
+
+
+        return products.stream().map(this::toProductResponseDTO).toList();
+
+    }
+
+    public CursorPageDTO<ProductResponseDTO> viewAllProductOfSeller(int size, String sort, String order, String filter,
+                                                                    String cursor, HttpServletRequest request) {
+        Seller seller = sellerService.getLoggedinSeller(request);
+
+        if (seller == null) {
+            throw new UserNotFoundException("Seller not found");
+        }
 
+        Sort.Direction direction = Sort.Direction.fromString(order);
+
+        if (filter != null && !filter.isBlank()) {
+            log.info("Scrolling seller products with filter: {}", filter);
+            Long sellerId = seller.getId();
+            return scrollIndexedProducts(filter, ProductSearchIndex.NAME | ProductSearchIndex.BRAND,
+                    document -> sellerId.equals(document.sellerId()), sort, direction, size, cursor,
+                    productIds -> findIndexedProducts(productIds).stream().map(this::toProductResponseDTO).toList());
+        }
+
+        log.info("Scrolling all products for sellerId: {}", seller.getId());
+        Sort keysetSort = CursorUtils.keysetSort(sort, direction, PRODUCT_KEYSET_COLUMNS);
+        Window<Product> window = productRepo.findBySellerIdAndIsDeletedFalse(seller.getId(),
+                CursorUtils.decodeKeyset(cursor, keysetSort), keysetSort, Limit.of(size));
+
+        return new CursorPageDTO<>(window.stream().map(this::toProductResponseDTO).toList(), CursorUtils.encode(window));
+    }
+
+    private ProductResponseDTO toProductResponseDTO(Product product) {
+        return new ProductResponseDTO(
+                product.getId(),
+                product.getName(),
+                product.getBrand(),
+                product.getDescription(),
+                product.getIsCancellable(),
+                product.getIsReturnable(),
+                product.getIsActive(),
+                product.getCategory().getId(),
+                product.getCategory().getName()
+        );
     }
 
-    public ResponseEntity<GenericResponse> addProductVariation(ProductVariationRequestDTO productVariationRequestDTO, HttpServletRequest request) {
+    public ResponseEntity<VariationSaveResponseDTO> addProductVariation(ProductVariationRequestDTO productVariationRequestDTO, HttpServletRequest request) {
         log.info("Adding variation for product ID: {}", productVariationRequestDTO.getProductId());
         Product product = productRepo.findById(productVariationRequestDTO.getProductId()).orElseThrow(
                 () -> new ResouceNotFound("Product not found")
@@ -311,28 +378,21 @@ public class ProductService {
             throw new BadRequestException("Product is either deleted or inactive");
         }
 
-        List<ProductVariation> variations = productVariationRepo.findByProductId(product.getId());
+        validateMetadata(product.getCategory(), productVariationRequestDTO.getMetaData());
 
-        try {
-            for (ProductVariation variation : variations) {
-                Map<String, String> existingMetadata = objectMapper.readValue(variation.getMetaData(), new TypeReference<>() {
-                });
-                existingMetadata = toLowerCaseMap(existingMetadata);
-                if (existingMetadata.equals(toLowerCaseMap(productVariationRequestDTO.getMetaData()))) {
-                    throw new DuplicateEntryException("Duplicate variation");
-                }
-            }
-        } catch (JsonProcessingException e) {
-            log.error("Error while parsing metadata JSON: {}", e.getMessage());
+        String fingerprint = VariationMetadata.of(productVariationRequestDTO.getMetaData()).fingerprint();
+        if (productVariationRepo.existsByProductIdAndMetadataFingerprint(product.getId(), fingerprint)) {
+            throw new DuplicateEntryException("Duplicate variation");
         }
 
-
-        validateMetadata(product.getCategory(), productVariationRequestDTO.getMetaData());
+        List<ImageUpload> uploads = ImageIngestionService.uploads(type, productVariationRequestDTO.getPrimaryImage(),
+                secondary, productVariationRequestDTO.getSecondaryImages());
+        imageIngestionService.validate(uploads);
 
         // convert json meta data
         String jsonMetadata;
         try {
-            jsonMetadata = objectMapper.writeValueAsString(productVariationRequestDTO.getMetaData());
+            jsonMetadata = variationMetadataCache.write(productVariationRequestDTO.getMetaData());
         } catch (JsonProcessingException e) {
             log.error("Error serializing metadata: {}", e.getMessage());
             throw new BadRequestException("Error while processing metadata JSON");
@@ -343,69 +403,51 @@ public class ProductService {
         productVariation.setQuantityAvailable(productVariationRequestDTO.getQuantityAvailable());
         productVariation.setPrice(productVariationRequestDTO.getPrice());
         productVariation.setMetaData(jsonMetadata.toLowerCase());
+        productVariation.setMetadataFingerprint(fingerprint);
         productVariation.setIsActive(true);
 
-        productVariation = productVariationRepo.save(productVariation);
-
-        ImageUtils.uploadImage(productVariationRequestDTO.getPrimaryImage(), productVariation.getId(), type);
-
-        String originalFilename = productVariationRequestDTO.getPrimaryImage().getOriginalFilename();
-        String extension = originalFilename.substring(originalFilename.lastIndexOf(".") + 1);
-        String imageName = productVariation.getId() + "." + extension;
-        productVariation.setPrimaryImageName(imageName);
+        productVariation = saveVariation(productVariation);
 
-        List<MultipartFile> secondaryImages = productVariationRequestDTO.getSecondaryImages();
-        if (secondaryImages != null && !secondaryImages.isEmpty()) {
-            Long count = 1L;
-            for (MultipartFile image : secondaryImages) {
-                ImageUtils.uploadImage(image, productVariation.getId() * value + count++, secondary);
-            }
+        ImageIngestionService.Result images = imageIngestionService.ingest(productVariation.getId(), uploads);
+        if (!images.succeeded()) {
+            // left in place, the image-less variation would turn the client's retry into a duplicate
+            productVariationRepo.deleteById(productVariation.getId());
+            log.warn("Variation {} removed again, its images could not be saved", productVariation.getId());
+            return ResponseEntity
+                    .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new VariationSaveResponseDTO("Product variation was not added, its images could not be saved",
+                            "IMAGE_UPLOAD_FAILED", LocalDateTime.now(), null, images.files()));
         }
 
-        productVariationRepo.save(productVariation);
+        String imageName = images.keyFor(type, ImageStorageService.PRIMARY_SLOT);
+        if (imageName != null) {
+            productVariation.setPrimaryImageName(imageName);
+            imageDerivativeService.generate(imageName);
+            productVariation = productVariationRepo.save(productVariation);
+        }
+        productFacetStore.updateVariation(product, null, VariationFacet.of(productVariation));
         log.info("Variation saved with ID: {}", productVariation.getId());
 
 
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(new GenericResponse("Product variation added successfully", message, LocalDateTime.now()));
+                .body(new VariationSaveResponseDTO("Product variation added successfully", message,
+                        LocalDateTime.now(), productVariation.getId(), images.files()));
 
     }
 
-    private Map<String, String> toLowerCaseMap(Map<String, String> metadata) {
-        return metadata.entrySet().stream()
-                .collect(Collectors.toMap(
-                        e -> e.getKey().toLowerCase(),
-                        e -> e.getValue().toLowerCase()
-                ));
+    private ProductVariation saveVariation(ProductVariation productVariation) {
+        try {
+            return productVariationRepo.saveAndFlush(productVariation);
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent request with the same metadata won the (product_id, metadata_fingerprint) constraint
+            log.warn("Duplicate variation rejected by unique constraint for product ID: {}", productVariation.getProduct().getId());
+            throw new DuplicateEntryException("Duplicate variation");
+        }
     }
 
     private void validateMetadata(Category category, Map<String, String> metaData) {
-        List<CategoryMetadataFieldValues> fieldValues = categoryMetadataFieldValuesRepo.findByCategoryId(category.getId());
-
-        if (fieldValues.isEmpty()) {
-            throw new ResouceNotFound("No metadata fields defined for this category.");
-        }
-        for (CategoryMetadataFieldValues field : fieldValues) {
-            String filedName = field.getCategoryMetadataField().getName().toLowerCase();
-
-            List<String> allowedValues = Arrays.asList(field.getFieldValues().toLowerCase().split(","));
-
-            if (!metaData.containsKey(filedName)) {
-                throw new ResouceNotFound("Missing metadata filed name");
-            }
-
-            String value = metaData.get(filedName);
-            if (!allowedValues.contains(value.toLowerCase())) {
-                throw new BadRequestException("Invalid meta data value for allowed values ");
-            }
-
-        }
-
-        if (metaData.isEmpty()) {
-            throw new BadRequestException("Variation must have at least one metadata field value");
-        }
-
+        categoryMetadataValidatorRegistry.validatorFor(category.getId()).validate(metaData);
     }
 
 
@@ -435,8 +477,7 @@ public class ProductService {
                     productVariation.getId(),
                     productVariation.getQuantityAvailable(),
                     productVariation.getPrice(),
-                    objectMapper.readValue(productVariation.getMetaData(), new TypeReference<>() {
-                    }),
+                    variationMetadataCache.get(productVariation).asMap(),
                     productVariation.getIsActive(),
                     new ProductResponseDTO(
                             productVariation.getProduct().getId(),
@@ -449,7 +490,7 @@ public class ProductService {
                             productVariation.getProduct().getCategory().getId(),
                             productVariation.getProduct().getCategory().getName()
                     ),
-                    ImageUtils.getImage(productVariation.getId(), type)
+                    imageUtils.getImage(productVariation.getId(), productVariation.getPrimaryImageName(), type)
             );
         } catch (JsonProcessingException e) {
             log.error("Failed to parse metadata JSON for variation ID: {}", productVariation.getId(), e);
@@ -489,8 +530,40 @@ public class ProductService {
                 .map(this::responseDTO).toList();
     }
 
+    public CursorPageDTO<ProductVariationResponseDTO> getVariationsForProduct(int size, String sort, String order, String filter,
+                                                                              Long productId, String cursor,
+                                                                              HttpServletRequest request) {
+        log.info("Scrolling variations for productId: {}", productId);
+        Product product = productRepo.findById(productId).orElseThrow(
+                () -> new ResouceNotFound("Product not found")
+        );
 
-    public ResponseEntity<GenericResponse> updateProductVariation(Long variationId, ProductVariationUpdateDTO variationUpdateDTO, HttpServletRequest request) {
+        Seller seller = sellerService.getLoggedinSeller(request);
+
+        if (!seller.getId().equals(product.getSeller().getId())) {
+            throw new AccessDeniedException("This user is not allowed to view this product variation");
+        }
+
+        if (Boolean.TRUE.equals(product.getIsDeleted())) {
+            throw new BadRequestException("Product is deleted");
+        }
+
+        Sort keysetSort = CursorUtils.keysetSort(sort, Sort.Direction.fromString(order), VARIATION_KEYSET_COLUMNS);
+        ScrollPosition position = CursorUtils.decodeKeyset(cursor, keysetSort);
+        Window<ProductVariation> productVariations;
+        if (filter != null && !filter.isBlank()) {
+            productVariations = productVariationRepo.findByProductIdAndMetaDataContainingIgnoreCase(productId, filter,
+                    position, keysetSort, Limit.of(size));
+        } else {
+            productVariations = productVariationRepo.findByProductId(productId, position, keysetSort, Limit.of(size));
+        }
+
+        return new CursorPageDTO<>(productVariations.stream().map(this::responseDTO).toList(),
+                CursorUtils.encode(productVariations));
+    }
+
+
+    public ResponseEntity<VariationSaveResponseDTO> updateProductVariation(Long variationId, ProductVariationUpdateDTO variationUpdateDTO, HttpServletRequest request) {
         ProductVariation productVariation = productVariationRepo.findById(variationId).orElseThrow(
                 () -> new ResouceNotFound("Product variation not found")
         );
@@ -505,17 +578,28 @@ public class ProductService {
             throw new BadRequestException("Product is either deleted or inactive");
         }
         log.info("Updating ProductVariation ID: {}", variationId);
+        VariationFacet previousFacet = VariationFacet.of(productVariation);
+
+        List<ImageUpload> uploads = ImageIngestionService.uploads(type, variationUpdateDTO.getPrimaryImage(),
+                secondary, variationUpdateDTO.getSecondaryImages());
+        imageIngestionService.validate(uploads);
 
         if (variationUpdateDTO.getMetaData() != null) {
             validateMetadata(productVariation.getProduct().getCategory(), variationUpdateDTO.getMetaData());
+            String fingerprint = VariationMetadata.of(variationUpdateDTO.getMetaData()).fingerprint();
+            if (productVariationRepo.existsByProductIdAndMetadataFingerprintAndIdNot(
+                    productVariation.getProduct().getId(), fingerprint, variationId)) {
+                throw new DuplicateEntryException("Duplicate variation");
+            }
 
             String jsonMetadata;
             try {
-                jsonMetadata = objectMapper.writeValueAsString(variationUpdateDTO.getMetaData()).toLowerCase();
+                jsonMetadata = variationMetadataCache.write(variationUpdateDTO.getMetaData()).toLowerCase();
             } catch (JsonProcessingException e) {
                 throw new BadRequestException("Error while processing metadata JSON");
             }
             productVariation.setMetaData(jsonMetadata.toLowerCase());
+            productVariation.setMetadataFingerprint(fingerprint);
             log.info("Updated metadata for variation {}", variationId);
         }
 
@@ -534,21 +618,27 @@ public class ProductService {
         }
 
 
-        productVariation = productVariationRepo.save(productVariation);
-
-        ImageUtils.uploadImage(variationUpdateDTO.getPrimaryImage(), productVariation.getId(), type);
+        productVariation = saveVariation(productVariation);
+        productFacetStore.updateVariation(productVariation.getProduct(), previousFacet, VariationFacet.of(productVariation));
 
-        List<MultipartFile> secondaryImages = variationUpdateDTO.getSecondaryImages();
-        if (secondaryImages != null && !secondaryImages.isEmpty()) {
-            Long count = 1L;
-            for (MultipartFile image : secondaryImages) {
-                ImageUtils.uploadImage(image, productVariation.getId() * value + count++, secondary);
-            }
+        // images are swapped only once the rest of the update is stored
+        ImageIngestionService.Result images = imageIngestionService.ingest(productVariation.getId(), uploads);
+        String imageName = images.keyFor(type, ImageStorageService.PRIMARY_SLOT);
+        if (imageName != null) {
+            productVariation.setPrimaryImageName(imageName);
+            imageDerivativeService.generate(imageName);
+            productVariation = productVariationRepo.save(productVariation);
         }
+
+        // the update itself is stored either way, so this is a success; files says which images did not make it
         log.info("Variation updated successfully");
         return ResponseEntity
                 .status(HttpStatus.OK)
-                .body(new GenericResponse("Product variation updated successfully", message, LocalDateTime.now()));
+                .body(new VariationSaveResponseDTO(
+                        images.succeeded() ? "Product variation updated successfully"
+                                : "Product variation updated, but some of its images were not saved",
+                        images.succeeded() ? message : "IMAGES_NOT_SAVED",
+                        LocalDateTime.now(), productVariation.getId(), images.files()));
 
     }
 
@@ -593,9 +683,8 @@ public class ProductService {
                                         variation.getId(),
                                         variation.getQuantityAvailable(),
                                         variation.getPrice(),
-                                        objectMapper.readValue(variation.getMetaData(), new TypeReference<>() {
-                                        }),
-                                        ImageUtils.getImage(variation.getId(), type),
+                                        variationMetadataCache.get(variation).asMap(),
+                                        imageUtils.getImage(variation.getId(), variation.getPrimaryImageName(), type),
                                         variation.getIsActive()
                                 );
                             } catch (JsonProcessingException e) {
@@ -618,9 +707,18 @@ public class ProductService {
 
         List<ProductVariation> productVariations = productVariationRepo.findByProductId(productId);
 
-        List<String> imageUtils = productVariations.stream().map(
-                variation -> ImageUtils.getImage(variation.getId(), type)
-        ).filter(Objects::nonNull).toList();
+        List<ProductVariation> withImages = productVariations.stream()
+                .filter(variation -> imageUtils.getImage(variation.getId(), variation.getPrimaryImageName(), type) != null)
+                .toList();
+        List<String> imageUtils = withImages.stream().map(
+                variation -> imageUtils.getImage(variation.getId(), variation.getPrimaryImageName(), type)
+        ).toList();
+        List<String> thumbnails = withImages.stream().map(
+                variation -> imageUtils.getDerivative(variation.getId(), variation.getPrimaryImageName(), type, ImageDerivative.THUMBNAIL)
+        ).toList();
+        List<String> webImages = withImages.stream().map(
+                variation -> imageUtils.getDerivative(variation.getId(), variation.getPrimaryImageName(), type, ImageDerivative.WEB)
+        ).toList();
         log.info("Admin fetched product: {}", product.getName());
         return new ProductViewDTO(
                 productId,
@@ -630,83 +728,103 @@ public class ProductService {
                 product.getIsCancellable(),
                 product.getIsReturnable(),
                 new CategoryViewResponseDTO(product.getCategory().getId(), product.getCategory().getName()),
-                imageUtils
+                imageUtils,
+                thumbnails,
+                webImages
         );
     }
 
 
     public List<ProductViewDTO> viewAllProductsByCustomer(int page, int size, String sort, String order, String filter, Long categoryId) {
         log.info("Customer viewing all products under categoryId: {}", categoryId);
-        Category category = categoryRepo.findById(categoryId).orElseThrow(
-                () -> new ResouceNotFound("Category not found")
-        );
-
-        List<Long> categoryIds = new ArrayList<>();
-
-        if (category.getProducts().isEmpty()) {
-            // If this is not a leaf category, fetch all child categories
-            categoryIds.addAll(getAllChildCategoryIds(category));
-        } else {
-            categoryIds.add(categoryId);
+        if (!categoryTreeCache.get().contains(categoryId)) {
+            throw new ResouceNotFound("Category not found");
         }
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(order), sort));
+        Sort.Direction direction = Sort.Direction.fromString(order);
         log.debug("Pagination: page={}, size={}, sort={}, order={}, filter={}", page, size, sort, order, filter);
-        Page<Product> productPage;
+        List<Long> productIds;
 
         if (filter != null && !filter.isBlank()) {
-            productPage = productRepo.findByAllCategoryIdsAndFilter(categoryIds, filter.toLowerCase(), pageable);
+            Set<Long> categoryIdSet = new HashSet<>(resolveLeafCategoryIds(categoryId));
+            productIds = productSearchIndex.search(filter, ProductSearchIndex.ALL_FIELDS,
+                    document -> document.active() && categoryIdSet.contains(document.categoryId()),
+                    sort, direction.isAscending(), page, size);
         } else {
-            productPage = productRepo.findByCategoryIdInAndIsActiveTrueAndIsDeletedFalse(categoryIds, pageable);
-        }
-        log.info("Total products found: {}", productPage.getTotalElements());
-        return productPage.stream().map(
-                product -> {
-                    List<String> imageUtils = product.getProductVariations().stream()
-                            .filter(ProductVariation::getIsActive).map(
-                                    variation -> ImageUtils.getImage(variation.getId(), type)
-                            ).filter(Objects::nonNull).toList();
-
-                    return new ProductViewDTO(
-                            product.getId(),
-                            product.getName(),
-                            product.getBrand(),
-                            product.getDescription(),
-                            product.getIsCancellable(),
-                            product.getIsReturnable(),
-                            new CategoryViewResponseDTO(product.getCategory().getId(), product.getCategory().getName()),
-                            imageUtils
-                    );
-                }
-        ).toList();
+            Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sort));
+            productIds = productRepo.findActiveIdsUnderCategory(categoryId, pageable);
+        }
+        log.info("Total products found: {}", productIds.size());
+        return productViewAssembler.assemble(productIds);
 
     }
 
-    private List<Category> getChildren(Long categoryId) {
-        Category category = categoryRepo.findById(categoryId)
-                .orElseThrow(
-                        () -> new ResouceNotFound("Category id not found")
-                );
+    public CursorPageDTO<ProductViewDTO> viewAllProductsByCustomer(int size, String sort, String order, String filter,
+                                                                   Long categoryId, String cursor) {
+        log.info("Customer scrolling products under categoryId: {}", categoryId);
+        List<Long> categoryIds = resolveLeafCategoryIds(categoryId);
 
-        return categoryRepo.findByParentCategory(category);
-    }
+        Sort.Direction direction = Sort.Direction.fromString(order);
 
-    private List<Long> getAllChildCategoryIds(Category category) {
-        List<Long> ids = new ArrayList<>();
-        getChildCategoryIdRecursive(category, ids);
-        return ids;
+        if (filter != null && !filter.isBlank()) {
+            Set<Long> categoryIdSet = new HashSet<>(categoryIds);
+            return scrollIndexedProducts(filter, ProductSearchIndex.ALL_FIELDS,
+                    document -> document.active() && categoryIdSet.contains(document.categoryId()),
+                    sort, direction, size, cursor, productViewAssembler::assemble);
+        }
+
+        Sort keysetSort = CursorUtils.keysetSort(sort, direction, PRODUCT_KEYSET_COLUMNS);
+        Window<Product> window = productRepo.findByCategoryIdInAndIsActiveTrueAndIsDeletedFalse(categoryIds,
+                CursorUtils.decodeKeyset(cursor, keysetSort), keysetSort, Limit.of(size));
+
+        return new CursorPageDTO<>(productViewAssembler.assemble(window.stream().map(Product::getId).toList()),
+                CursorUtils.encode(window));
     }
 
-    private void getChildCategoryIdRecursive(Category category, List<Long> ids) {
+    private List<Long> resolveLeafCategoryIds(Long categoryId) {
+        CategoryTree categoryTree = categoryTreeCache.get();
 
-        if (category.getProducts() != null && !category.getProducts().isEmpty()) {
-            ids.add(category.getId());
+        if (!categoryTree.contains(categoryId)) {
+            throw new ResouceNotFound("Category not found");
         }
 
-        List<Category> childCategory = getChildren(category.getId());
-        for (Category child : childCategory) {
-            getChildCategoryIdRecursive(child, ids);
+        // leaf category resolves to itself, otherwise to every leaf below it
+        return categoryTree.getDescendantLeafIds(categoryId);
+    }
+
+    // the index ranks in memory, so an offset into its hits costs nothing on the database side
+    private <T> CursorPageDTO<T> scrollIndexedProducts(String filter, int fields, Predicate<IndexedProduct> documentFilter,
+                                                       String sort, Sort.Direction direction, int size, String cursor,
+                                                       Function<List<Long>, List<T>> loader) {
+        long offset = CursorUtils.decodeOffset(cursor);
+        List<Long> productIds = productSearchIndex.searchFrom(filter, fields, documentFilter,
+                sort, direction.isAscending(), offset, size + 1);
+
+        boolean hasNext = productIds.size() > size;
+        List<T> items = loader.apply(hasNext ? productIds.subList(0, size) : productIds);
+
+        return new CursorPageDTO<>(items, hasNext ? CursorUtils.encodeOffset(offset + size) : null);
+    }
+
+    private List<Product> findIndexedProducts(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
         }
+
+        Map<Long, Product> productMap = productRepo.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
+
+        return productIds.stream()
+                .map(productMap::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    public ResponseEntity<GenericResponse> rebuildSearchIndex() {
+        productSearchIndex.rebuild();
+        return ResponseEntity
+                .status(HttpStatus.OK)
+                .body(new GenericResponse("Search index rebuilt with " + productSearchIndex.size() + " products", message, LocalDateTime.now()));
     }
 
     public ResponseEntity<GenericResponse> changeProductStatus(Long productId, boolean isActive) {
@@ -724,11 +842,16 @@ public class ProductService {
             throw new BadRequestException("Product is already " + status);
         }
 
+        List<ProductVariation> variations = productVariationRepo.findByProductId(productId);
+        productFacetStore.removeProduct(product, variations);
+
         product.setIsActive(isActive);
         productRepo.save(product);
+        productSearchIndex.index(product);
+        productFacetStore.addProduct(product, variations);
 
-        emailService.sendProductStatusUpdateToSeller(emailName, product, product.getIsActive());
-        emailService.sendProductStatusUpdateToSeller(product.getSeller().getEmail(), product, product.getIsActive());
+        notificationAggregator.productStatusChanged(emailName, product, product.getIsActive());
+        notificationAggregator.productStatusChanged(product.getSeller().getEmail(), product, product.getIsActive());
 
         String newState = isActive ? "activated" : "deactivated";
         log.info("Product status updated. productId: {}, currentStatus: {}", productId, product.getIsActive());
@@ -739,77 +862,63 @@ public class ProductService {
 
     public List<ProductViewDTO> viewAllProductsByAdmin(int page, int size, String sort, String order, String filter) {
         log.info("Admin viewing all active products");
-        Page<Product> products;
+        List<Long> productIds;
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(order), sort));
+        Sort.Direction direction = Sort.Direction.fromString(order);
         log.debug("Pagination: page={}, size={}, sort={}, order={}, filter={}", page, size, sort, order, filter);
         if (filter != null && !filter.isBlank()) {
-            products = productRepo.findActiveProductWithQuery(filter, pageable);
+            productIds = productSearchIndex.search(filter, ProductSearchIndex.ALL_FIELDS,
+                    IndexedProduct::active, sort, direction.isAscending(), page, size);
         } else {
-            products = productRepo.findByIsDeletedFalseAndIsActiveTrue(pageable);
-        }
-
-        log.info("Total active products fetched: {}", products.getTotalElements());
-        return products.stream().map(
-                product -> {
-                    List<String> imageUtils = product.getProductVariations().stream()
-                            .filter(ProductVariation::getIsActive).map(
-                                    variation -> ImageUtils.getImage(variation.getId(), type)
-                            ).filter(Objects::nonNull).toList();
-
-                    return new ProductViewDTO(
-                            product.getId(),
-                            product.getName(),
-                            product.getBrand(),
-                            product.getDescription(),
-                            product.getIsCancellable(),
-                            product.getIsReturnable(),
-                            new CategoryViewResponseDTO(product.getCategory().getId(), product.getCategory().getName()),
-                            imageUtils
-                    );
-                }
-        ).toList();
+            Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sort));
+            productIds = productRepo.findActiveIds(pageable);
+        }
+
+        log.info("Total active products fetched: {}", productIds.size());
+        return productViewAssembler.assemble(productIds);
 
     }
 
+    public CursorPageDTO<ProductViewDTO> viewAllProductsByAdmin(int size, String sort, String order, String filter, String cursor) {
+        log.info("Admin scrolling all active products");
+        Sort.Direction direction = Sort.Direction.fromString(order);
+
+        if (filter != null && !filter.isBlank()) {
+            return scrollIndexedProducts(filter, ProductSearchIndex.ALL_FIELDS, IndexedProduct::active,
+                    sort, direction, size, cursor, productViewAssembler::assemble);
+        }
+
+        Sort keysetSort = CursorUtils.keysetSort(sort, direction, PRODUCT_KEYSET_COLUMNS);
+        Window<Product> window = productRepo.findByIsDeletedFalseAndIsActiveTrue(
+                CursorUtils.decodeKeyset(cursor, keysetSort), keysetSort, Limit.of(size));
+
+        return new CursorPageDTO<>(productViewAssembler.assemble(window.stream().map(Product::getId).toList()),
+                CursorUtils.encode(window));
+    }
+
     public List<ProductViewDTO> viewSimilarProducts(int page, int size, String sort, String order, String filter, Long productId) {
         log.info("Fetching similar products for productId: {}", productId);
         Product product = productRepo.findByIdAndIsActiveTrueAndIsDeletedFalse(productId).orElseThrow(
                 () -> new ResouceNotFound("Product id not found")
         );
 
-        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.fromString(order), sort));
+        Sort.Direction direction = Sort.Direction.fromString(order);
         log.debug("Pagination: page={}, size={}, sort={}, order={}, filter={}", page, size, sort, order, filter);
         Long categoryId = product.getCategory().getId();
 
-        Page<Product> products;
+        List<Long> productIds;
 
         if (filter != null && !filter.isBlank()) {
-            products = productRepo.findActiveProductsByCategoryIdAndQuery(categoryId, filter, pageable);
+            productIds = productSearchIndex.search(filter, ProductSearchIndex.ALL_FIELDS,
+                    document -> document.active() && categoryId.equals(document.categoryId()),
+                    sort, direction.isAscending(), page, size);
         } else {
-            products = productRepo.findByCategoryIdAndIsActiveTrueAndIsDeletedFalse(categoryId, pageable);
-        }
-
-        log.info("Found {} similar products for categoryId: {}", products.getTotalElements(), categoryId);
-        return products.stream().map(
-                p -> {
-                    List<String> imageUtils = p.getProductVariations().stream()
-                            .filter(ProductVariation::getIsActive).map(
-                                    variation -> ImageUtils.getImage(variation.getId(), type)
-                            ).filter(Objects::nonNull).toList();
-
-                    return new ProductViewDTO(
-                            p.getId(),
-                            p.getName(),
-                            p.getBrand(),
-                            p.getDescription(),
-                            p.getIsCancellable(),
-                            p.getIsReturnable(),
-                            new CategoryViewResponseDTO(p.getCategory().getId(), p.getCategory().getName()),
-                            imageUtils
-                    );
-                }
-        ).toList();
+            Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sort));
+            productIds = productRepo.findActiveIdsByCategoryId(categoryId, pageable);
+        }
+
+        log.info("Found {} similar products for categoryId: {}", productIds.size(), categoryId);
+        return productViewAssembler.assemble(productIds);
 
 
     }
@@ -0,0 +1,79 @@
+package com.shopperspoint.service;
+
+import com.shopperspoint.dto.CategoryViewResponseDTO;
+import com.shopperspoint.dto.ProductViewDTO;
+import com.shopperspoint.dto.ProductViewRow;
+import com.shopperspoint.dto.VariationImageRow;
+import com.shopperspoint.image.ImageDerivative;
+import com.shopperspoint.repository.ProductRepo;
+import com.shopperspoint.repository.ProductVariationRepo;
+import com.shopperspoint.utill.ImageUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class ProductViewAssembler {
+
+    private final ProductRepo productRepo;
+    private final ProductVariationRepo productVariationRepo;
+    private final ImageUtils imageUtils;
+
+    @Autowired
+    public ProductViewAssembler(ProductRepo productRepo, ProductVariationRepo productVariationRepo, ImageUtils imageUtils) {
+        this.productRepo = productRepo;
+        this.productVariationRepo = productVariationRepo;
+        this.imageUtils = imageUtils;
+    }
+
+    @Value("${image.product.variation}")
+    private String type;
+
+
+    // two statements per page whatever its size: product rows with their category, then active variation ids
+    public List<ProductViewDTO> assemble(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, ProductViewRow> rows = productRepo.findViewRowsByIdIn(productIds).stream()
+                .collect(Collectors.toMap(ProductViewRow::getId, Function.identity()));
+
+        Map<Long, List<String>> imagesByProduct = new HashMap<>();
+        Map<Long, List<String>> thumbnailsByProduct = new HashMap<>();
+        Map<Long, List<String>> webImagesByProduct = new HashMap<>();
+        for (VariationImageRow variation : productVariationRepo.findActiveImageRowsByProductIdIn(rows.keySet())) {
+            Long variationId = variation.getVariationId();
+            String fileName = variation.getPrimaryImageName();
+            String image = imageUtils.getImage(variationId, fileName, type);
+            if (image != null) {
+                imagesByProduct.computeIfAbsent(variation.getProductId(), id -> new ArrayList<>()).add(image);
+                thumbnailsByProduct.computeIfAbsent(variation.getProductId(), id -> new ArrayList<>())
+                        .add(imageUtils.getDerivative(variationId, fileName, type, ImageDerivative.THUMBNAIL));
+                webImagesByProduct.computeIfAbsent(variation.getProductId(), id -> new ArrayList<>())
+                        .add(imageUtils.getDerivative(variationId, fileName, type, ImageDerivative.WEB));
+            }
+        }
+
+        return productIds.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .map(row -> new ProductViewDTO(
+                        row.getId(),
+                        row.getName(),
+                        row.getBrand(),
+                        row.getDescription(),
+                        row.getIsCancellable(),
+                        row.getIsReturnable(),
+                        new CategoryViewResponseDTO(row.getCategoryId(), row.getCategoryName()),
+                        imagesByProduct.getOrDefault(row.getId(), List.of()),
+                        thumbnailsByProduct.getOrDefault(row.getId(), List.of()),
+                        webImagesByProduct.getOrDefault(row.getId(), List.of())
+                ))
+                .toList();
+    }
+}
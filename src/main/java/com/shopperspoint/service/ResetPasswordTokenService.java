@@ -6,11 +6,9 @@ import com.shopperspoint.exceptionhandler.InvalidTokenException;
 import com.shopperspoint.exceptionhandler.TokenExpiredException;
 import com.shopperspoint.repository.PasswordTokenRepo;
 import com.shopperspoint.repository.UserRepo;
-import jakarta.transaction.Transactional;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -76,12 +74,4 @@ public class ResetPasswordTokenService {
                     log.info("Old token deleted: {}", token.getToken());
                 });
     }
-
-    @Scheduled(cron = "0 0 0 * * *")
-    @Transactional
-    public void deleteExpiredToken() {
-        log.info("Scheduled cleanup of expired tokens started at: {}", LocalDateTime.now());
-        passwordTokenRepo.deleteTokeByExpiryTime(LocalDateTime.now());
-        log.info("Scheduled cleanup of expired tokens completed.");
-    }
 }
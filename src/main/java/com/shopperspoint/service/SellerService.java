@@ -7,20 +7,20 @@ import com.shopperspoint.entity.Address;
 import com.shopperspoint.entity.Role;
 import com.shopperspoint.entity.Seller;
 import com.shopperspoint.exceptionhandler.*;
-import com.shopperspoint.jwt.JwtUtil;
+import com.shopperspoint.image.ImageDerivativeService;
+import com.shopperspoint.image.ImageStorageService;
 import com.shopperspoint.repository.AddressRepo;
 import com.shopperspoint.repository.SellerRepo;
 import com.shopperspoint.repository.UserRepo;
+import com.shopperspoint.security.PrincipalCache;
+import com.shopperspoint.utill.CursorUtils;
 import com.shopperspoint.utill.ImageUtils;
-import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.MessageSource;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -35,27 +35,40 @@ import java.util.stream.Collectors;
 @Service
 @Slf4j
 public class SellerService {
+    private static final Set<String> KEYSET_COLUMNS = Set.of("id", "email", "firstName", "companyName");
+
     private final UserRepo userRepo;
     private final SellerRepo sellerRepo;
     private final AuthenticationManager authenticationManager;
     private final AddressRepo addressRepo;
     private final PasswordEncoder passwordEncoder;
     private final EmailService emailService;
-    private final JwtUtil jwtUtil;
     private final MessageSource messageSource;
+    private final PrincipalCache principalCache;
+    private final TokenEpochService tokenEpochService;
+    private final ImageStorageService imageStorageService;
+    private final ImageDerivativeService imageDerivativeService;
+    private final ImageUtils imageUtils;
 
     @Autowired
     public SellerService(UserRepo userRepo, SellerRepo sellerRepo, AuthenticationManager authenticationManager,
                          AddressRepo addressRepo, PasswordEncoder passwordEncoder,
-                         EmailService emailService, JwtUtil jwtUtil, MessageSource messageSource) {
+                         EmailService emailService, MessageSource messageSource,
+                         PrincipalCache principalCache, TokenEpochService tokenEpochService,
+                         ImageStorageService imageStorageService, ImageDerivativeService imageDerivativeService,
+                         ImageUtils imageUtils) {
         this.userRepo = userRepo;
         this.sellerRepo = sellerRepo;
         this.authenticationManager = authenticationManager;
         this.addressRepo = addressRepo;
         this.passwordEncoder = passwordEncoder;
         this.emailService = emailService;
-        this.jwtUtil = jwtUtil;
         this.messageSource = messageSource;
+        this.principalCache = principalCache;
+        this.tokenEpochService = tokenEpochService;
+        this.imageStorageService = imageStorageService;
+        this.imageDerivativeService = imageDerivativeService;
+        this.imageUtils = imageUtils;
     }
 
 
@@ -168,78 +181,69 @@ public class SellerService {
             throw new UserNotFoundException("No seller found");
         }
 
-        return sellers.stream()
-                .map(
-                        seller -> {
-                            List<AddressDTO> addressDTOList = seller.getAddresses().stream()
-                                    .map(
-                                            address ->
+        return sellers.stream().map(this::toSellerResponseDTO).toList();
 
-                                                    new AddressDTO(
-                                                            address.getAddressLine(),
-                                                            address.getLabel(),
-                                                            address.getCity(),
-                                                            address.getState(),
-                                                            address.getCountry(),
-                                                            address.getZipCode()
+    }
 
-                                                    )
+    public CursorPageDTO<SellerResponseDTO> getAllSellers(int size, String sort, String emailFilter, String cursor) {
+        log.info("Scrolling sellers with size: {}, sort: {}, filter: {}", size, sort, emailFilter);
+        Sort keysetSort = CursorUtils.keysetSort(sort, Sort.Direction.ASC, KEYSET_COLUMNS);
+        ScrollPosition position = CursorUtils.decodeKeyset(cursor, keysetSort);
 
-                                    ).toList();
+        Window<Seller> sellers;
+        if (emailFilter != null) {
+            sellers = sellerRepo.findByRolesAuthorityAndEmailContaining("SELLER", emailFilter, position, keysetSort, Limit.of(size));
+        } else {
+            sellers = sellerRepo.findByRolesAuthority("SELLER", position, keysetSort, Limit.of(size));
+        }
 
+        return new CursorPageDTO<>(sellers.stream().map(this::toSellerResponseDTO).toList(), CursorUtils.encode(sellers));
+    }
 
-                            return new SellerResponseDTO(
-                                    seller.getId(),
-                                    seller.getEmail(),
-                                    seller.getFirstName() +
-                                            (seller.getMiddleName() != null ? " " + seller.getMiddleName() : "") +
-                                            " " + seller.getLastName(),
-                                    seller.getIsActive(),
-                                    seller.getCompanyName(),
-                                    addressDTOList,
-                                    seller.getCompanyContact()
+    private SellerResponseDTO toSellerResponseDTO(Seller seller) {
+        List<AddressDTO> addressDTOList = seller.getAddresses().stream()
+                .map(
+                        address ->
 
+                                new AddressDTO(
+                                        address.getAddressLine(),
+                                        address.getLabel(),
+                                        address.getCity(),
+                                        address.getState(),
+                                        address.getCountry(),
+                                        address.getZipCode()
 
-                            );
-                        }).toList();
+                                )
 
-    }
+                ).toList();
 
 
-    public Seller getLoggedinSeller(HttpServletRequest request) {
-        String token = null;
-        String email = null;
-
-        Cookie[] cookies = request.getCookies();
-        if (cookies != null) {
-            for (Cookie cookie : cookies) {
-                if ("accessToken".equals(cookie.getName())) {
-                    token = cookie.getValue();
-                    break;
-                }
-            }
-        }
+        return new SellerResponseDTO(
+                seller.getId(),
+                seller.getEmail(),
+                seller.getFirstName() +
+                        (seller.getMiddleName() != null ? " " + seller.getMiddleName() : "") +
+                        " " + seller.getLastName(),
+                seller.getIsActive(),
+                seller.getCompanyName(),
+                addressDTOList,
+                seller.getCompanyContact()
 
-        if (token == null) {
-            log.error("JWT access token not found in cookies");
-            throw new AccessDeniedException("Jwt is not present in cookies");
-        }
 
-        email = jwtUtil.extractUserName(token);
+        );
+    }
 
-        if (email == null) {
-            log.error("Failed to extract email from JWT token");
-            throw new AccessDeniedException("Invalid token");
-        }
 
-        Seller seller = sellerRepo.findByEmail(email);
+    // JwtFilter already resolved the principal; a reference costs no query until a field other than the id is read
+    public Seller getLoggedinSeller(HttpServletRequest request) {
+        UserPrinciple principal = UserPrinciple.current();
 
-        if (seller == null) {
-            log.error("Seller not found for email: {}", email);
+        if (principal.getType() != UserPrinciple.Type.SELLER) {
+            log.error("Seller not found for email: {}", principal.getUsername());
             throw new UserNotFoundException("User not found");
         }
-        log.info("Logged-in seller identified: {}", email);
-        return seller;
+        log.info("Logged-in seller identified: {}", principal.getUsername());
+        return sellerRepo.getReferenceById(principal.getId());
     }
 
 
@@ -267,7 +271,7 @@ public class SellerService {
                 seller.getCompanyName(),
                 seller.getGst(),
                 addressDTO,
-                ImageUtils.getImage(seller.getId(), type)
+                imageUtils.getImage(seller.getId(), type)
         );
 
     }
@@ -293,7 +297,8 @@ public class SellerService {
         seller.setCompanyContact(Optional.ofNullable(sellerUpdateProfileDTO.getCompanyContact()).orElse(seller.getCompanyContact()));
         seller.setCompanyName(Optional.ofNullable(sellerUpdateProfileDTO.getCompanyName()).orElse(seller.getCompanyName()));
 
-        ImageUtils.uploadImage(sellerUpdateProfileDTO.getImage(), seller.getId(), type);
+        imageDerivativeService.generate(
+                imageStorageService.store(sellerUpdateProfileDTO.getImage(), type, seller.getId(), ImageStorageService.PRIMARY_SLOT));
         userRepo.save(seller);
         log.info("Seller profile updated for email: {}", seller.getEmail());
 
@@ -308,7 +313,9 @@ public class SellerService {
         Seller seller = getLoggedinSeller(request);
         seller.setPassword(passwordEncoder.encode(passwordDTO.getPassword()));
         seller.setPasswordUpdatedDate(LocalDateTime.now());
+        tokenEpochService.revokeAll(seller);
         userRepo.save(seller);
+        principalCache.evictAfterCommit(seller.getEmail());
         emailService.notifyPasswordChanged(seller.getEmail());
 
         return ResponseEntity
@@ -0,0 +1,61 @@
+package com.shopperspoint.service;
+
+import com.shopperspoint.dto.UserTokenEpochRow;
+import com.shopperspoint.entity.User;
+import com.shopperspoint.jwt.ParsedToken;
+import com.shopperspoint.repository.UserRepo;
+import com.shopperspoint.utill.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class TokenEpochService {
+
+    private final UserRepo userRepo;
+
+    // user id -> oldest epoch still accepted; users who never revoked anything stay at 0 and are not stored
+    private final Map<Long, Long> epochs = new ConcurrentHashMap<>();
+
+    @Autowired
+    public TokenEpochService(UserRepo userRepo) {
+        this.userRepo = userRepo;
+    }
+
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long start = System.currentTimeMillis();
+        for (UserTokenEpochRow row : userRepo.findTokenEpochRows()) {
+            epochs.merge(row.getUserId(), row.getTokenEpoch(), Math::max);
+        }
+        log.info("Loaded token epochs for {} users in {} ms", epochs.size(), System.currentTimeMillis() - start);
+    }
+
+    public long currentEpoch(User user) {
+        return user.getTokenEpoch() != null ? user.getTokenEpoch() : 0;
+    }
+
+    public boolean isCurrent(ParsedToken token) {
+        // tokens issued before epochs existed carry no claims and age out on their own expiry
+        if (token.userId() == null || token.epoch() == null) {
+            return true;
+        }
+        return token.epoch() >= epochs.getOrDefault(token.userId(), 0L);
+    }
+
+    // invalidates every token issued to the user so far; the caller saves the user in its transaction
+    public void revokeAll(User user) {
+        long next = currentEpoch(user) + 1;
+        user.setTokenEpoch(next);
+        Long userId = user.getId();
+        TransactionUtils.afterCommit(() -> epochs.merge(userId, next, Math::max));
+        log.info("Token epoch for user {} moved to {}", userId, next);
+    }
+}
@@ -0,0 +1,98 @@
+package com.shopperspoint.service;
+
+import com.shopperspoint.repository.ActivationTokenRepo;
+import com.shopperspoint.repository.BlacklistTokenRepo;
+import com.shopperspoint.repository.PasswordTokenRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+@Service
+@Slf4j
+public class TokenRetentionService {
+
+    private final ActivationTokenRepo activationTokenRepo;
+    private final PasswordTokenRepo passwordTokenRepo;
+    private final BlacklistTokenRepo blacklistTokenRepo;
+
+    @Autowired
+    public TokenRetentionService(ActivationTokenRepo activationTokenRepo, PasswordTokenRepo passwordTokenRepo,
+                                 BlacklistTokenRepo blacklistTokenRepo) {
+        this.activationTokenRepo = activationTokenRepo;
+        this.passwordTokenRepo = passwordTokenRepo;
+        this.blacklistTokenRepo = blacklistTokenRepo;
+    }
+
+    @Value("${token.retention.batch.size:500}")
+    private int batchSize;
+
+    @Value("${token.retention.batch.pause.ms:200}")
+    private long pauseMillis;
+
+    @Value("${token.retention.max.batches:20}")
+    private int maxBatches;
+
+    @Value("${refresh.expiration.time}")
+    private long refreshExpirationTime;
+
+
+    // small runs every few minutes instead of one unbounded delete at midnight; a backlog drains over several runs
+    @Scheduled(fixedDelayString = "${token.retention.interval.ms:600000}",
+            initialDelayString = "${token.retention.interval.ms:600000}")
+    public void purgeExpiredTokens() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime blacklistCutoff = now.minusNanos(refreshExpirationTime * 1_000_000);
+
+        purge("activation_token", activationTokenRepo, limit -> activationTokenRepo.findExpiredIds(now, limit));
+        purge("reset_password_token", passwordTokenRepo, limit -> passwordTokenRepo.findExpiredIds(now, limit));
+        purge("blacklisted_token", blacklistTokenRepo,
+                limit -> blacklistTokenRepo.findExpiredIds(blacklistCutoff, limit));
+    }
+
+    private void purge(String table, JpaRepository<?, Long> repository, Function<Limit, List<Long>> expiredIds) {
+        long start = System.currentTimeMillis();
+        int removed = 0;
+        int batches = 0;
+
+        while (batches < maxBatches) {
+            List<Long> ids = expiredIds.apply(Limit.of(batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            // each batch commits on its own so locks are held for one chunk only
+            repository.deleteAllByIdInBatch(ids);
+            removed += ids.size();
+            batches++;
+
+            if (ids.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        if (removed > 0) {
+            log.info("Removed {} expired rows from {} in {} batches, {} ms",
+                    removed, table, batches, System.currentTimeMillis() - start);
+        } else {
+            log.debug("No expired rows in {}", table);
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
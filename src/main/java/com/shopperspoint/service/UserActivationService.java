@@ -8,6 +8,7 @@ import com.shopperspoint.exceptionhandler.AccountAlreadyActivatedException;
 import com.shopperspoint.exceptionhandler.UserNotFoundException;
 import com.shopperspoint.repository.CustomerRepo;
 import com.shopperspoint.repository.SellerRepo;
+import com.shopperspoint.security.PrincipalCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -24,12 +25,17 @@ public class UserActivationService {
     private final CustomerRepo customerRepo;
     private final SellerRepo sellerRepo;
     private final EmailService emailService;
+    private final PrincipalCache principalCache;
+    private final TokenEpochService tokenEpochService;
 
     @Autowired
-    public UserActivationService(CustomerRepo customerRepo, SellerRepo sellerRepo, EmailService emailService) {
+    public UserActivationService(CustomerRepo customerRepo, SellerRepo sellerRepo, EmailService emailService,
+                                 PrincipalCache principalCache, TokenEpochService tokenEpochService) {
         this.customerRepo = customerRepo;
         this.sellerRepo = sellerRepo;
         this.emailService = emailService;
+        this.principalCache = principalCache;
+        this.tokenEpochService = tokenEpochService;
     }
 
     @Value("${success.message}")
@@ -55,6 +61,7 @@ public class UserActivationService {
 
         customer.setIsActive(true);
         customerRepo.save(customer);
+        principalCache.evictAfterCommit(customer.getEmail());
 
         emailService.notifyAccountActivationSuccess(customer.getEmail());
 
@@ -78,7 +85,9 @@ public class UserActivationService {
 
         if (Boolean.TRUE.equals(customer.getIsActive())) {
             customer.setIsActive(false);
+            tokenEpochService.revokeAll(customer);
             customerRepo.save(customer);
+            principalCache.evictAfterCommit(customer.getEmail());
             emailService.notifyAccountDeActivation(customer.getEmail());
             log.info("Customer account deactivated successfully for email: {}", customer.getEmail());
         } else {
@@ -111,6 +120,7 @@ public class UserActivationService {
 
         seller.setIsActive(true);
         sellerRepo.save(seller);
+        principalCache.evictAfterCommit(seller.getEmail());
 
         emailService.notifyAccountActivationSuccess(seller.getEmail());
         log.info("Seller account activated successfully for email: {}", seller.getEmail());
@@ -134,7 +144,9 @@ public class UserActivationService {
 
         if (Boolean.TRUE.equals(seller.getIsActive())) {
             seller.setIsActive(false);
+            tokenEpochService.revokeAll(seller);
             sellerRepo.save(seller);
+            principalCache.evictAfterCommit(seller.getEmail());
             emailService.notifyAccountDeActivation(seller.getEmail());
             log.info("Seller account deactivated successfully for email: {}", seller.getEmail());
         } else {
@@ -0,0 +1,168 @@
+package com.shopperspoint.utill;
+
+import com.shopperspoint.exceptionhandler.BadRequestException;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public final class CursorUtils {
+
+    private static final byte KEYSET = 'K';
+    private static final byte OFFSET = 'O';
+
+    private static final byte LONG = 'L';
+    private static final byte INTEGER = 'I';
+    private static final byte STRING = 'S';
+    private static final byte BOOLEAN = 'B';
+    private static final byte DOUBLE = 'D';
+    private static final byte DATE_TIME = 'T';
+
+    private CursorUtils() {
+    }
+
+    // a keyset seeks past the last row's sort key, so only columns that are never null can drive it
+    public static Sort keysetSort(String property, Sort.Direction direction, Set<String> keysetColumns) {
+        if (!keysetColumns.contains(property)) {
+            throw new BadRequestException("Sorting by '" + property + "' is not supported in cursor mode");
+        }
+        Sort sort = Sort.by(direction, property);
+        return "id".equals(property) ? sort : sort.and(Sort.by(direction, "id"));
+    }
+
+    public static ScrollPosition decodeKeyset(String cursor, Sort sort) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+
+        Map<String, Object> keys = new LinkedHashMap<>();
+        try (DataInputStream in = open(cursor, KEYSET)) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String property = in.readUTF();
+                keys.put(property, readValue(in));
+            }
+        } catch (IOException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+
+        Set<String> sortProperties = sort.stream().map(Sort.Order::getProperty).collect(Collectors.toSet());
+        if (!keys.keySet().equals(sortProperties)) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+        return ScrollPosition.forward(keys);
+    }
+
+    public static long decodeOffset(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+
+        try (DataInputStream in = open(cursor, OFFSET)) {
+            long offset = in.readLong();
+            if (offset < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return offset;
+        } catch (IOException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    public static String encode(Window<?> window) {
+        if (!window.hasNext() || window.isEmpty()) {
+            return null;
+        }
+
+        ScrollPosition position = window.positionAt(window.size() - 1);
+        if (!(position instanceof KeysetScrollPosition keyset)) {
+            throw new IllegalStateException("Expected a keyset scroll position but got " + position);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(KEYSET);
+            out.writeInt(keyset.getKeys().size());
+            for (Map.Entry<String, Object> entry : keyset.getKeys().entrySet()) {
+                out.writeUTF(entry.getKey());
+                writeValue(out, entry.getKey(), entry.getValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    public static String encodeOffset(long offset) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(OFFSET);
+            out.writeLong(offset);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+
+    private static DataInputStream open(String cursor, byte expectedKind) throws IOException {
+        byte[] decoded;
+        try {
+            decoded = Base64.getUrlDecoder().decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(decoded));
+        if (in.readByte() != expectedKind) {
+            throw new BadRequestException("Cursor does not belong to this listing");
+        }
+        return in;
+    }
+
+    private static Object readValue(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case LONG -> in.readLong();
+            case INTEGER -> in.readInt();
+            case STRING -> in.readUTF();
+            case BOOLEAN -> in.readBoolean();
+            case DOUBLE -> in.readDouble();
+            case DATE_TIME -> LocalDateTime.parse(in.readUTF());
+            default -> throw new BadRequestException("Invalid cursor");
+        };
+    }
+
+    private static void writeValue(DataOutputStream out, String property, Object value) throws IOException {
+        if (value instanceof Long longValue) {
+            out.writeByte(LONG);
+            out.writeLong(longValue);
+        } else if (value instanceof Integer intValue) {
+            out.writeByte(INTEGER);
+            out.writeInt(intValue);
+        } else if (value instanceof String stringValue) {
+            out.writeByte(STRING);
+            out.writeUTF(stringValue);
+        } else if (value instanceof Boolean booleanValue) {
+            out.writeByte(BOOLEAN);
+            out.writeBoolean(booleanValue);
+        } else if (value instanceof Double doubleValue) {
+            out.writeByte(DOUBLE);
+            out.writeDouble(doubleValue);
+        } else if (value instanceof LocalDateTime dateTime) {
+            out.writeByte(DATE_TIME);
+            out.writeUTF(dateTime.toString());
+        } else {
+            // keysetSort only admits columns that are never null
+            throw new IllegalStateException("Unsupported keyset value for '" + property + "': " + value);
+        }
+    }
+}
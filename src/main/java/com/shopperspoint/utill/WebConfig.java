@@ -1,15 +0,0 @@
-package com.shopperspoint.utill;
-
-import org.springframework.context.annotation.Configuration;
-import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
-import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-
-@Configuration
-public class WebConfig implements WebMvcConfigurer {
-    @Override
-    public void addResourceHandlers(ResourceHandlerRegistry registry) {
-        String imagePath = System.getProperty("user.dir") + "/images/";
-        registry.addResourceHandler("/images/**")
-                .addResourceLocations("file:" + imagePath);
-    }
-}
@@ -0,0 +1,169 @@
+package com.shopperspoint.catalog;
+
+import com.shopperspoint.entity.Category;
+import com.shopperspoint.entity.Product;
+import com.shopperspoint.repository.ProductRepo;
+import com.shopperspoint.repository.ProductVariationRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductFacetStoreTest {
+
+    private final Category category = new Category();
+    // the product table: id -> committed row
+    private final TreeMap<Long, Product> table = new TreeMap<>();
+    // runs inside the read of a batch, after the rows it returns were taken
+    private Runnable duringRead = () -> {
+    };
+    private Runnable beforeIds = () -> {
+    };
+    private ProductRepo productRepo;
+    private ProductFacetStore store;
+    private CategoryTree tree;
+
+    @BeforeEach
+    void setUp() {
+        category.setId(10L);
+        category.setName("jackets");
+        tree = CategoryTree.of(List.of(category));
+
+        productRepo = mock(ProductRepo.class);
+        when(productRepo.findIdsAfter(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            beforeIds.run();
+            long lastId = invocation.getArgument(0);
+            return table.tailMap(lastId, false).keySet().stream()
+                    .limit(((Limit) invocation.getArgument(1)).max()).toList();
+        });
+        when(productRepo.findAllById(any())).thenAnswer(invocation -> {
+            List<Product> rows = new ArrayList<>();
+            for (Long id : (Iterable<Long>) invocation.getArgument(0)) {
+                Product row = table.get(id);
+                if (row != null) {
+                    rows.add(copy(row));
+                }
+            }
+            duringRead.run();
+            return rows;
+        });
+
+        ProductVariationRepo productVariationRepo = mock(ProductVariationRepo.class);
+        when(productVariationRepo.findByProductIdIn(anyList())).thenReturn(List.of());
+        store = new ProductFacetStore(productRepo, productVariationRepo, mock(VariationMetadataCache.class));
+        ReflectionTestUtils.setField(store, "batchSize", 1);
+    }
+
+    @Test
+    void writesToAlreadyReadProductsAreReplayed() {
+        insert(product(1L, "acme"));
+        insert(product(2L, "zeta"));
+        insert(product(3L, "acme"));
+
+        // product 1 is deactivated once the scan has moved past it, product 3 changes before its batch starts
+        beforeIds = () -> {
+            if (readPast(1L) && table.get(1L).getIsActive()) {
+                deactivate(1L);
+                rebrand(3L, "zeta");
+            }
+        };
+        store.reconcile();
+
+        assertThat(store.facetsFor(tree, 10L).brandCounts()).isEqualTo(Map.of("zeta", 2));
+
+        store.addProduct(insert(product(4L, "zeta")), List.of());
+        assertThat(store.facetsFor(tree, 10L).brandCounts()).isEqualTo(Map.of("zeta", 3));
+    }
+
+    @Test
+    void writeInsideTheBatchBeingReadIsReplayed() {
+        insert(product(1L, "acme"));
+        insert(product(2L, "acme"));
+
+        // the read of product 2's batch returns the old row, then the rebrand commits before the batch is counted
+        duringRead = () -> {
+            if (readPast(2L) && "acme".equals(table.get(2L).getBrand())) {
+                rebrand(2L, "zeta");
+            }
+        };
+        store.reconcile();
+
+        assertThat(store.facetsFor(tree, 10L).brandCounts()).isEqualTo(Map.of("acme", 1, "zeta", 1));
+    }
+
+    @Test
+    void deleteBehindTheScanDoesNotSkipLaterProducts() {
+        insert(product(1L, "acme"));
+        insert(product(2L, "acme"));
+        insert(product(3L, "zeta"));
+
+        beforeIds = () -> {
+            if (readPast(1L) && table.containsKey(1L)) {
+                Product deleted = table.remove(1L);
+                store.removeProduct(deleted, List.of());
+            }
+        };
+        store.reconcile();
+
+        assertThat(store.facetsFor(tree, 10L).brandCounts()).isEqualTo(Map.of("acme", 1, "zeta", 1));
+    }
+
+    @Test
+    void laterReconcileRunsCorrectDrift() {
+        insert(product(1L, "acme"));
+        store.reconcile();
+
+        store.addProduct(product(7L, "stray"), List.of());
+        store.reconcile();
+
+        assertThat(store.facetsFor(tree, 10L).brandCounts()).isEqualTo(Map.of("acme", 1));
+    }
+
+    private boolean readPast(long id) {
+        return (long) ReflectionTestUtils.getField(store, "scannedThroughId") >= id;
+    }
+
+    private Product insert(Product product) {
+        table.put(product.getId(), product);
+        return product;
+    }
+
+    // each write commits to the table, then reaches the store the way ProductService calls it
+    private void deactivate(long id) {
+        Product row = table.get(id);
+        store.removeProduct(copy(row), List.of());
+        row.setIsActive(false);
+    }
+
+    private void rebrand(long id, String brand) {
+        Product row = table.get(id);
+        store.removeProduct(copy(row), List.of());
+        row.setBrand(brand);
+        store.addProduct(copy(row), List.of());
+    }
+
+    private Product product(Long id, String brand) {
+        Product product = new Product();
+        product.setId(id);
+        product.setBrand(brand);
+        product.setIsActive(true);
+        product.setIsDeleted(false);
+        product.setCategory(category);
+        return product;
+    }
+
+    private Product copy(Product row) {
+        Product copy = product(row.getId(), row.getBrand());
+        copy.setIsActive(row.getIsActive());
+        return copy;
+    }
+}
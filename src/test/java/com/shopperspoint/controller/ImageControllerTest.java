@@ -0,0 +1,111 @@
+package com.shopperspoint.controller;
+
+import com.shopperspoint.image.ImageManifest;
+import com.shopperspoint.image.ImageStorageService;
+import com.shopperspoint.image.ImageVisibility;
+import com.shopperspoint.repository.StoredImageRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ImageControllerTest {
+
+    private static final String PRODUCT_HASH = "%064x".formatted(1);
+    private static final String PROFILE_HASH = "%064x".formatted(2);
+
+    @TempDir
+    private Path root;
+
+    private StoredImageRepo storedImageRepo;
+    private ImageController controller;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (String hash : List.of(PRODUCT_HASH, PROFILE_HASH)) {
+            Path file = root.resolve(ImageStorageService.blobKey(hash, ".jpg"));
+            Files.createDirectories(file.getParent());
+            Files.write(file, new byte[]{1, 2, 3});
+        }
+
+        storedImageRepo = mock(StoredImageRepo.class);
+        when(storedImageRepo.existsByContentHashAndExtensionAndOwnerTypeIn(anyString(), anyString(), any()))
+                .thenReturn(false);
+        when(storedImageRepo.existsByContentHashAndExtensionAndOwnerTypeIn(eq(PRODUCT_HASH), eq(".jpg"), any()))
+                .thenReturn(true);
+        controller = new ImageController(new ImageStorageService(storedImageRepo, new ImageManifest(storedImageRepo), root.toString(), 0),
+                new ImageVisibility(storedImageRepo, "product-variation", "product-variation-secondary",
+                        10_000, 60_000));
+    }
+
+    @Test
+    void productImagesArePublic() throws Exception {
+        MockHttpServletResponse response = serve("/images/" + ImageStorageService.blobKey(PRODUCT_HASH, ".jpg"), false);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.CACHE_CONTROL)).startsWith("public");
+    }
+
+    @Test
+    void profileImagesNeedASignedInUserAndStayPrivate() throws Exception {
+        String blob = "/images/" + ImageStorageService.blobKey(PROFILE_HASH, ".jpg");
+        String derivative = "/images/derivatives/thumb/" + ImageStorageService.blobKey(PROFILE_HASH, ".jpg")
+                .substring("blobs/".length()) + ".jpg";
+
+        assertThat(serve(blob, false).getStatus()).isEqualTo(401);
+        assertThat(serve(derivative, false).getStatus()).isEqualTo(401);
+
+        MockHttpServletResponse signedIn = serve(blob, true);
+        assertThat(signedIn.getStatus()).isEqualTo(200);
+        assertThat(signedIn.getHeader(HttpHeaders.CACHE_CONTROL)).startsWith("private");
+    }
+
+    @Test
+    void wildcardRevalidationOfAMissingBlobIsNotFound() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET",
+                "/images/" + ImageStorageService.blobKey("%064x".formatted(3), ".jpg"));
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "*");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        controller.serve(request, response);
+
+        assertThat(response.getStatus()).isEqualTo(404);
+        verifyNoInteractions(storedImageRepo);
+    }
+
+    @Test
+    void privateAnswersAreCached() throws Exception {
+        String blob = "/images/" + ImageStorageService.blobKey(PROFILE_HASH, ".jpg");
+        for (int i = 0; i < 5; i++) {
+            assertThat(serve(blob, false).getStatus()).isEqualTo(401);
+        }
+
+        verify(storedImageRepo, times(1)).existsByContentHashAndExtensionAndOwnerTypeIn(eq(PROFILE_HASH), eq(".jpg"), any());
+    }
+
+    private MockHttpServletResponse serve(String uri, boolean signedIn) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        if (signedIn) {
+            request.setUserPrincipal(() -> "customer@shopperspoint.com");
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        controller.serve(request, response);
+        return response;
+    }
+}
@@ -0,0 +1,208 @@
+package com.shopperspoint.email;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.shopperspoint.entity.EmailOutbox;
+import com.shopperspoint.enums.EmailStatus;
+import com.shopperspoint.repository.EmailOutboxRepo;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.mockito.stubbing.Answer;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EmailDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    // the mocked repository keeps detached copies here, the way rows sit in email_outbox
+    private final Map<Long, EmailOutbox> table = new TreeMap<>();
+    private final AtomicLong ids = new AtomicLong();
+    private EmailOutboxRepo emailOutboxRepo;
+    private EmailDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        emailOutboxRepo = fakeOutbox();
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+        dispatcher = new EmailDispatcher(emailOutboxRepo, mailSender, 1, 50, 5, 30_000, 600_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void sendsPendingMailOverSmtp() throws Exception {
+        insert("first@test.com", "First");
+        insert("second@test.com", "Second");
+        insert("third@test.com", "Third");
+
+        dispatcher.dispatch();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertThat(received).hasSize(3);
+        assertThat(Arrays.stream(received).map(this::subject)).containsExactlyInAnyOrder("First", "Second", "Third");
+        assertThat(table.values()).allSatisfy(email -> {
+            assertThat(email.getStatus()).isEqualTo(EmailStatus.SENT);
+            assertThat(email.getSentAt()).isNotNull();
+        });
+    }
+
+    @Test
+    void sendsOnlyTheRowsThisPollClaimed() {
+        EmailOutbox taken = insert("first@test.com", "First");
+        insert("second@test.com", "Second");
+
+        // another instance claims the first row between this poll's select and its claim
+        when(emailOutboxRepo.claim(anyCollection(), any(), any(), anyString(), any())).thenAnswer(invocation -> {
+            EmailOutbox row = table.get(taken.getId());
+            row.setStatus(EmailStatus.SENDING);
+            row.setClaimToken("other-instance");
+            return claim(invocation.getArgument(0), invocation.getArgument(3), invocation.getArgument(4));
+        });
+
+        dispatcher.dispatch();
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(1);
+        assertThat(subject(greenMail.getReceivedMessages()[0])).isEqualTo("Second");
+        assertThat(table.get(taken.getId()).getStatus()).isEqualTo(EmailStatus.SENDING);
+        assertThat(table.get(taken.getId()).getClaimToken()).isEqualTo("other-instance");
+    }
+
+    @Test
+    void failedBookkeepingPutsTheSliceBackWithBackoff() {
+        insert("first@test.com", "First");
+        insert("second@test.com", "Second");
+        when(emailOutboxRepo.saveAll(anyIterable()))
+                .thenThrow(new DataAccessResourceFailureException("database unavailable"))
+                .thenAnswer(saveAll());
+
+        LocalDateTime before = LocalDateTime.now();
+        dispatcher.dispatch();
+
+        assertThat(table.values()).allSatisfy(email -> {
+            assertThat(email.getStatus()).isEqualTo(EmailStatus.PENDING);
+            assertThat(email.getAttempts()).isEqualTo(1);
+            assertThat(email.getNextAttemptAt()).isAfter(before);
+        });
+    }
+
+    @Test
+    void abandonedSendsAreRequeued() {
+        EmailOutbox stuck = insert("first@test.com", "First");
+        stuck.setStatus(EmailStatus.SENDING);
+        stuck.setNextAttemptAt(LocalDateTime.now().minusMinutes(1));
+
+        dispatcher.requeueAbandoned();
+
+        assertThat(table.get(stuck.getId()).getStatus()).isEqualTo(EmailStatus.PENDING);
+    }
+
+    private EmailOutbox insert(String recipient, String subject) {
+        EmailOutbox email = new EmailOutbox(recipient, subject, "<p>" + subject + "</p>");
+        email.setId(ids.incrementAndGet());
+        table.put(email.getId(), email);
+        return email;
+    }
+
+    private String subject(MimeMessage message) {
+        try {
+            return message.getSubject();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private int claim(Collection<Long> targets, String claimToken, LocalDateTime abandonAt) {
+        int claimed = 0;
+        for (Long id : targets) {
+            EmailOutbox row = table.get(id);
+            if (row != null && row.getStatus() == EmailStatus.PENDING) {
+                row.setStatus(EmailStatus.SENDING);
+                row.setClaimToken(claimToken);
+                row.setNextAttemptAt(abandonAt);
+                claimed++;
+            }
+        }
+        return claimed;
+    }
+
+    private Answer<List<EmailOutbox>> saveAll() {
+        return invocation -> {
+            List<EmailOutbox> saved = new ArrayList<>();
+            for (EmailOutbox email : invocation.<Iterable<EmailOutbox>>getArgument(0)) {
+                table.put(email.getId(), copy(email));
+                saved.add(email);
+            }
+            return saved;
+        };
+    }
+
+    private EmailOutboxRepo fakeOutbox() {
+        EmailOutboxRepo repo = mock(EmailOutboxRepo.class);
+        when(repo.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(any(), any(), any())).thenAnswer(invocation -> {
+            EmailStatus status = invocation.getArgument(0);
+            LocalDateTime now = invocation.getArgument(1);
+            Limit limit = invocation.getArgument(2);
+            return table.values().stream()
+                    .filter(email -> email.getStatus() == status && !email.getNextAttemptAt().isAfter(now))
+                    .limit(limit.max())
+                    .map(EmailDispatcherTest::copy)
+                    .toList();
+        });
+        when(repo.claim(anyCollection(), any(), any(), anyString(), any())).thenAnswer(invocation ->
+                claim(invocation.getArgument(0), invocation.getArgument(3), invocation.getArgument(4)));
+        when(repo.findByClaimTokenAndStatus(anyString(), any())).thenAnswer(invocation -> table.values().stream()
+                .filter(email -> invocation.getArgument(0).equals(email.getClaimToken())
+                        && email.getStatus() == invocation.getArgument(1))
+                .map(EmailDispatcherTest::copy)
+                .toList());
+        when(repo.updateStatusBefore(any(), any(), any())).thenAnswer(invocation -> {
+            LocalDateTime before = invocation.getArgument(2);
+            int updated = 0;
+            for (EmailOutbox email : table.values()) {
+                if (email.getStatus() == invocation.getArgument(0) && !email.getNextAttemptAt().isAfter(before)) {
+                    email.setStatus(invocation.getArgument(1));
+                    updated++;
+                }
+            }
+            return updated;
+        });
+        when(repo.saveAll(anyIterable())).thenAnswer(saveAll());
+        return repo;
+    }
+
+    private static EmailOutbox copy(EmailOutbox email) {
+        EmailOutbox copy = new EmailOutbox(email.getRecipient(), email.getSubject(), email.getBody());
+        copy.setId(email.getId());
+        copy.setStatus(email.getStatus());
+        copy.setAttempts(email.getAttempts());
+        copy.setNextAttemptAt(email.getNextAttemptAt());
+        copy.setCreatedAt(email.getCreatedAt());
+        copy.setSentAt(email.getSentAt());
+        copy.setLastError(email.getLastError());
+        copy.setClaimToken(email.getClaimToken());
+        return copy;
+    }
+}
@@ -0,0 +1,48 @@
+package com.shopperspoint.email;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.ResourceBundleMessageSource;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EmailTemplateRegistryTest {
+
+    private EmailTemplateRegistry templateRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        templateRegistry = new EmailTemplateRegistry(messageSource);
+        templateRegistry.load();
+    }
+
+    @Test
+    void productStatusBodyFollowsTheLocale() {
+        String state = templateRegistry.message("email.product.state.activated", Locale.GERMAN);
+
+        EmailTemplateRegistry.Rendered mail = templateRegistry.render(EmailType.PRODUCT_ACTIVATED, Locale.GERMAN,
+                "Anna", state, "Shirt", "brand", "clothing", 7L);
+
+        assertThat(mail.body()).contains("Dein Produkt wurde vom Administrator <strong>aktiviert</strong>");
+        assertThat(mail.body()).doesNotContain("Your product");
+    }
+
+    @Test
+    void everyTemplateHasGermanAndFrenchBodies() {
+        for (EmailType type : EmailType.values()) {
+            Object[] args = type.getParameters();
+            String english = templateRegistry.render(type, Locale.ENGLISH, args).body();
+            for (Locale locale : List.of(Locale.GERMAN, Locale.FRENCH)) {
+                assertThat(templateRegistry.render(type, locale, args).body())
+                        .as("%s body in %s", type, locale)
+                        .isNotEqualTo(english);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.shopperspoint.email;
+
+import com.shopperspoint.entity.Category;
+import com.shopperspoint.entity.EmailOutbox;
+import com.shopperspoint.entity.Product;
+import com.shopperspoint.entity.Seller;
+import com.shopperspoint.enums.EmailStatus;
+import com.shopperspoint.repository.EmailOutboxRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.data.domain.Limit;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class NotificationAggregatorTest {
+
+    private static final String FIRST_ADMIN = "first-admin@test.com";
+    private static final String SECOND_ADMIN = "second-admin@test.com";
+
+    // the mocked repository keeps its rows here, standing in for the email_outbox table
+    private final List<EmailOutbox> outbox = new ArrayList<>();
+    private NotificationAggregator aggregator;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        LocaleContextHolder.setLocale(Locale.ENGLISH);
+
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages/messages");
+        messageSource.setDefaultEncoding("UTF-8");
+        EmailTemplateRegistry templateRegistry = new EmailTemplateRegistry(messageSource);
+        templateRegistry.load();
+
+        EmailOutboxRepo emailOutboxRepo = fakeOutbox();
+        aggregator = new NotificationAggregator(new EmailService(emailOutboxRepo, templateRegistry), emailOutboxRepo,
+                true, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        LocaleContextHolder.resetLocaleContext();
+    }
+
+    @Test
+    void thousandsOfAddsBecomeOneMailPerRecipient() {
+        for (int i = 0; i < 1500; i++) {
+            aggregator.newProductPending(FIRST_ADMIN, product(i));
+        }
+        for (int i = 0; i < 1200; i++) {
+            aggregator.newProductPending(SECOND_ADMIN, product(i));
+        }
+        assertThat(aggregator.pendingEvents()).isEqualTo(2700);
+
+        aggregator.flush();
+
+        assertThat(outbox).hasSize(2);
+        assertThat(outbox).allSatisfy(email -> assertThat(email.getStatus()).isEqualTo(EmailStatus.PENDING));
+
+        EmailOutbox first = mailTo(FIRST_ADMIN);
+        assertThat(first.getSubject()).isEqualTo("1,500 new products pending approval");
+        assertThat(first.getBody()).contains("<strong>1500</strong>").contains("... and 1,450 more");
+        assertThat(first.getBody()).contains("product-0 | brand").doesNotContain("product-50 | brand");
+
+        EmailOutbox second = mailTo(SECOND_ADMIN);
+        assertThat(second.getSubject()).isEqualTo("1,200 new products pending approval");
+        assertThat(second.getBody()).contains("<strong>1200</strong>").contains("... and 1,150 more");
+
+        assertThat(aggregator.pendingEvents()).isZero();
+    }
+
+    @Test
+    void singleEventKeepsTheDetailedMail() {
+        aggregator.newProductPending(FIRST_ADMIN, product(7));
+
+        aggregator.flush();
+
+        assertThat(outbox).hasSize(1);
+        EmailOutbox mail = outbox.get(0);
+        assertThat(mail.getStatus()).isEqualTo(EmailStatus.PENDING);
+        assertThat(mail.getSubject()).doesNotContain("new products pending approval");
+        assertThat(mail.getBody()).contains("product-7");
+    }
+
+    private EmailOutbox mailTo(String recipient) {
+        return outbox.stream().filter(email -> email.getRecipient().equals(recipient)).findFirst().orElseThrow();
+    }
+
+    private static Product product(int index) {
+        Category category = new Category();
+        category.setName("phones");
+        Seller seller = new Seller();
+        seller.setEmail("seller@test.com");
+        seller.setCompanyName("Test Co");
+
+        Product product = new Product();
+        product.setId((long) index);
+        product.setName("product-" + index);
+        product.setBrand("brand");
+        product.setCategory(category);
+        product.setSeller(seller);
+        return product;
+    }
+
+    private EmailOutboxRepo fakeOutbox() {
+        EmailOutboxRepo repo = mock(EmailOutboxRepo.class);
+        AtomicLong ids = new AtomicLong();
+
+        when(repo.save(any(EmailOutbox.class))).thenAnswer(invocation -> {
+            EmailOutbox email = invocation.getArgument(0);
+            email.setId(ids.incrementAndGet());
+            outbox.add(email);
+            return email;
+        });
+        when(repo.findByStatusAndIdGreaterThanOrderByIdAsc(any(), anyLong(), any())).thenAnswer(invocation -> {
+            EmailStatus status = invocation.getArgument(0);
+            long after = invocation.getArgument(1);
+            Limit limit = invocation.getArgument(2);
+            return outbox.stream()
+                    .filter(email -> email.getStatus() == status && email.getId() > after)
+                    .sorted(Comparator.comparing(EmailOutbox::getId))
+                    .limit(limit.max())
+                    .toList();
+        });
+        when(repo.countByStatus(any())).thenAnswer(invocation ->
+                outbox.stream().filter(email -> email.getStatus() == invocation.getArgument(0)).count());
+        when(repo.updateStatus(anyCollection(), any(), any())).thenAnswer(invocation -> {
+            Collection<Long> targets = invocation.getArgument(0);
+            int updated = 0;
+            for (EmailOutbox email : outbox) {
+                if (targets.contains(email.getId()) && email.getStatus() == invocation.getArgument(1)) {
+                    email.setStatus(invocation.getArgument(2));
+                    updated++;
+                }
+            }
+            return updated;
+        });
+        when(repo.deleteByIdInAndStatus(anyCollection(), any())).thenAnswer(invocation -> {
+            Set<Long> targets = new HashSet<>(invocation.<Collection<Long>>getArgument(0));
+            int before = outbox.size();
+            outbox.removeIf(email -> targets.contains(email.getId()) && email.getStatus() == invocation.getArgument(1));
+            return before - outbox.size();
+        });
+        return repo;
+    }
+}
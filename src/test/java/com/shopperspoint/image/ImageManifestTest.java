@@ -0,0 +1,67 @@
+package com.shopperspoint.image;
+
+import com.shopperspoint.entity.StoredImage;
+import com.shopperspoint.repository.StoredImageRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ImageManifestTest {
+
+    private static final String TYPE = "product-variation";
+
+    private StoredImageRepo storedImageRepo;
+    private ImageManifest manifest;
+
+    @BeforeEach
+    void setUp() {
+        storedImageRepo = mock(StoredImageRepo.class);
+        when(storedImageRepo.findByOwnerTypeAndOwnerIdAndSlot(anyString(), anyLong(), eq(ImageStorageService.PRIMARY_SLOT)))
+                .thenReturn(Optional.empty());
+        manifest = new ImageManifest(storedImageRepo);
+    }
+
+    @Test
+    void writesDuringTheLoadAreNotOverwrittenBySnapshot() {
+        manifest.record(TYPE, 1L, "blobs/new.jpg");
+        manifest.markDerived("blobs/old.jpg", false);
+
+        manifest.load(Map.of(TYPE, Map.of(1L, "blobs/old.jpg", 2L, "blobs/other.jpg")),
+                Set.of("blobs/old.jpg", "blobs/other.jpg"));
+
+        assertThat(manifest.lookup(TYPE, 1L)).isEqualTo("blobs/new.jpg");
+        assertThat(manifest.lookup(TYPE, 2L)).isEqualTo("blobs/other.jpg");
+        assertThat(manifest.isDerived("blobs/old.jpg")).isFalse();
+        assertThat(manifest.isDerived("blobs/other.jpg")).isTrue();
+    }
+
+    @Test
+    void missesFallBackToTheDatabaseUntilLoaded() {
+        StoredImage image = new StoredImage(TYPE, 5L, ImageStorageService.PRIMARY_SLOT);
+        image.setContentHash("ab12");
+        image.setExtension(".png");
+        when(storedImageRepo.findByOwnerTypeAndOwnerIdAndSlot(TYPE, 5L, ImageStorageService.PRIMARY_SLOT))
+                .thenReturn(Optional.of(image));
+
+        assertThat(manifest.lookup(TYPE, 5L)).isEqualTo(ImageStorageService.blobKey("ab12", ".png"));
+        assertThat(manifest.lookup(TYPE, 5L)).isEqualTo(ImageStorageService.blobKey("ab12", ".png"));
+        verify(storedImageRepo).findByOwnerTypeAndOwnerIdAndSlot(TYPE, 5L, ImageStorageService.PRIMARY_SLOT);
+
+        manifest.load(Map.of(), Set.of());
+
+        assertThat(manifest.lookup(TYPE, 6L)).isNull();
+        verify(storedImageRepo, never()).findByOwnerTypeAndOwnerIdAndSlot(TYPE, 6L, ImageStorageService.PRIMARY_SLOT);
+    }
+}
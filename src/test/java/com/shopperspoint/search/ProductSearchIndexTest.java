@@ -0,0 +1,102 @@
+package com.shopperspoint.search;
+
+import com.shopperspoint.entity.Product;
+import com.shopperspoint.exceptionhandler.BadRequestException;
+import com.shopperspoint.repository.ProductRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private ProductRepo productRepo;
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepo = mock(ProductRepo.class);
+        index = new ProductSearchIndex(productRepo);
+        ReflectionTestUtils.setField(index, "batchSize", 100);
+    }
+
+    @Test
+    void writesDuringRebuildSurviveTheSwap() {
+        Product scanned = product(1L, "red jacket", "acme");
+        Product removedMidScan = product(2L, "blue jacket", "acme");
+        Product addedMidScan = product(3L, "green jacket", "acme");
+        index.index(removedMidScan);
+
+        // the scan still returns product 2, but it is deleted and product 3 is created while the scan runs
+        when(productRepo.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            index.remove(removedMidScan.getId());
+            index.index(addedMidScan);
+            return ((Long) invocation.getArgument(0)) == 0 ? List.of(scanned, removedMidScan) : List.of();
+        });
+
+        index.rebuild();
+
+        assertThat(index.search("jacket", ProductSearchIndex.ALL_FIELDS, document -> true, "id", true, 0, 10))
+                .containsExactly(1L, 3L);
+    }
+
+    @Test
+    void deleteBehindTheScanDoesNotSkipLaterProducts() {
+        ReflectionTestUtils.setField(index, "batchSize", 2);
+        List<Product> table = new ArrayList<>(List.of(product(1L, "red jacket", "acme"),
+                product(2L, "blue jacket", "acme"), product(3L, "green jacket", "acme"),
+                product(4L, "black jacket", "acme")));
+
+        // product 1 is hard-deleted after the first batch; with offset paging product 3 would slide into page 0
+        when(productRepo.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            long lastId = invocation.getArgument(0);
+            int limit = ((Limit) invocation.getArgument(1)).max();
+            if (lastId > 0 && table.get(0).getId() == 1L) {
+                table.remove(0);
+                index.remove(1L);
+            }
+            return table.stream().filter(product -> product.getId() > lastId).limit(limit).toList();
+        });
+
+        index.rebuild();
+
+        assertThat(index.search("jacket", ProductSearchIndex.ALL_FIELDS, document -> true, "id", true, 0, 10))
+                .containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void filteredResultsFollowTheRequestedSort() {
+        index.index(product(1L, "zebra jacket", "acme"));
+        index.index(product(2L, "alpha jacket", "hooli"));
+        index.index(product(3L, "jacket", "globex"));
+
+        assertThat(index.search("jacket", ProductSearchIndex.ALL_FIELDS, document -> true, "name", true, 0, 10))
+                .containsExactly(2L, 3L, 1L);
+        assertThat(index.search("jacket", ProductSearchIndex.ALL_FIELDS, document -> true, "id", false, 0, 10))
+                .containsExactly(3L, 2L, 1L);
+        assertThat(index.search("jacket", ProductSearchIndex.ALL_FIELDS, document -> true, "brand", true, 0, 10))
+                .containsExactly(1L, 3L, 2L);
+        assertThatThrownBy(() -> index.search("jacket", ProductSearchIndex.ALL_FIELDS, document -> true,
+                "createdDate", true, 0, 10)).isInstanceOf(BadRequestException.class);
+    }
+
+    private static Product product(Long id, String name, String brand) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setBrand(brand);
+        product.setIsActive(true);
+        product.setIsDeleted(false);
+        return product;
+    }
+}
@@ -0,0 +1,104 @@
+package com.shopperspoint.security;
+
+import com.shopperspoint.entity.User;
+import com.shopperspoint.repository.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class LoginAttemptTrackerTest {
+
+    private static final int THREADS = 32;
+    private static final int FAILURES = 500;
+
+    private UserRepo userRepo;
+    private LoginAttemptTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        userRepo = mock(UserRepo.class);
+        tracker = new LoginAttemptTracker(userRepo, 3, 900_000, 64);
+    }
+
+    @Test
+    void parallelFailuresLockTheAccountExactlyOnce() throws Exception {
+        User user = user("target@test.com", 1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<LoginAttemptTracker.Outcome>> outcomes = new ArrayList<>();
+        try {
+            for (int i = 0; i < FAILURES; i++) {
+                outcomes.add(executor.submit(() -> {
+                    start.await();
+                    return tracker.recordFailure(user);
+                }));
+            }
+            start.countDown();
+
+            int newlyLocked = 0;
+            int beforeLock = 0;
+            for (Future<LoginAttemptTracker.Outcome> outcome : outcomes) {
+                LoginAttemptTracker.Outcome result = outcome.get(30, TimeUnit.SECONDS);
+                if (result.newlyLocked()) {
+                    newlyLocked++;
+                    assertThat(result.failures()).isEqualTo(3);
+                }
+                if (!result.locked()) {
+                    beforeLock++;
+                }
+            }
+
+            assertThat(newlyLocked).isEqualTo(1);
+            // the persisted failure counts towards the limit, so only one more is allowed through unlocked
+            assertThat(beforeLock).isEqualTo(1);
+            assertThat(tracker.isLocked(user.getEmail())).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void flushWritesOneStatementPerCountAndLockGroup() {
+        User locked = user("locked@test.com", 2);
+        User first = user("first@test.com", 0);
+        User second = user("second@test.com", 0);
+
+        assertThat(tracker.recordFailure(locked).newlyLocked()).isTrue();
+        tracker.recordFailure(first);
+        tracker.recordFailure(second);
+
+        tracker.flush();
+
+        ArgumentCaptor<Collection<String>> emails = ArgumentCaptor.forClass(Collection.class);
+        verify(userRepo).updateLoginAttempts(eq(3), eq(true), emails.capture(), any());
+        assertThat(emails.getValue()).containsExactly("locked@test.com");
+        verify(userRepo).updateLoginAttempts(eq(1), eq(false), emails.capture(), any());
+        assertThat(emails.getValue()).containsExactlyInAnyOrder("first@test.com", "second@test.com");
+        verify(userRepo, times(2)).updateLoginAttempts(anyInt(), anyBoolean(), anyCollection(), any());
+
+        tracker.flush();
+        verifyNoMoreInteractions(userRepo);
+    }
+
+    private static User user(String email, int persistedFailures) {
+        User user = new User();
+        user.setEmail(email);
+        user.setIsLocked(false);
+        user.setInvalidAttemptCount(persistedFailures);
+        return user;
+    }
+}
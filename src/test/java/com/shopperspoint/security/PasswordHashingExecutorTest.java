@@ -0,0 +1,88 @@
+package com.shopperspoint.security;
+
+import com.shopperspoint.exceptionhandler.TooManyRequestsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHashingExecutorTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger hashes = new AtomicInteger();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private PasswordHashingExecutor hashingExecutor;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        hashingExecutor.shutdown();
+    }
+
+    @Test
+    void timedOutHashKeepsItsSlotUntilItFinishes() throws Exception {
+        hashingExecutor = new PasswordHashingExecutor(blockingEncoder(), 1, 1, 100);
+
+        // the first hash starts and outlives its caller, the second gives up while still queued
+        assertThatThrownBy(() -> hashingExecutor.matches("secret", "hash")).isInstanceOf(TooManyRequestsException.class);
+        assertThatThrownBy(() -> hashingExecutor.matches("secret", "hash")).isInstanceOf(TooManyRequestsException.class);
+        assertThat(hashingExecutor.stats().getQueued()).isZero();
+        assertThat(hashingExecutor.stats().getActive()).isEqualTo(1);
+        assertThat(hashingExecutor.stats().getTimedOut()).isEqualTo(2);
+
+        release.countDown();
+        while (hashingExecutor.stats().getCompleted() < 1) {
+            Thread.sleep(10);
+        }
+
+        assertThat(hashingExecutor.matches("secret", "hash")).isTrue();
+        // the abandoned queued hash never ran
+        assertThat(hashes.get()).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsOnceRunningAndQueuedHashesFillThePool() throws Exception {
+        hashingExecutor = new PasswordHashingExecutor(blockingEncoder(), 1, 1, 5000);
+
+        Future<Boolean> running = callers.submit(() -> hashingExecutor.matches("secret", "hash"));
+        while (hashes.get() < 1) {
+            Thread.sleep(10);
+        }
+        Future<Boolean> queued = callers.submit(() -> hashingExecutor.matches("secret", "hash"));
+        while (hashingExecutor.stats().getQueued() < 1) {
+            Thread.sleep(10);
+        }
+
+        assertThatThrownBy(() -> hashingExecutor.matches("secret", "hash")).isInstanceOf(TooManyRequestsException.class);
+        assertThat(hashingExecutor.stats().getRejected()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private PasswordEncoder blockingEncoder() {
+        PasswordEncoder encoder = mock(PasswordEncoder.class);
+        when(encoder.matches(anyString(), anyString())).thenAnswer(invocation -> {
+            hashes.incrementAndGet();
+            // like bcrypt, keeps going when its thread is interrupted
+            while (true) {
+                try {
+                    release.await();
+                    return true;
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+        return encoder;
+    }
+}
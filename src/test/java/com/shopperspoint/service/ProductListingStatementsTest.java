@@ -0,0 +1,164 @@
+package com.shopperspoint.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopperspoint.catalog.CategoryMetadataValidatorRegistry;
+import com.shopperspoint.catalog.CategoryTree;
+import com.shopperspoint.catalog.CategoryTreeCache;
+import com.shopperspoint.catalog.ProductFacetStore;
+import com.shopperspoint.catalog.VariationMetadataCache;
+import com.shopperspoint.dto.ProductViewDTO;
+import com.shopperspoint.email.NotificationAggregator;
+import com.shopperspoint.entity.Category;
+import com.shopperspoint.entity.CategoryClosure;
+import com.shopperspoint.entity.Product;
+import com.shopperspoint.entity.ProductVariation;
+import com.shopperspoint.entity.Seller;
+import com.shopperspoint.image.ImageDerivativeService;
+import com.shopperspoint.image.ImageIngestionService;
+import com.shopperspoint.image.ImageManifest;
+import com.shopperspoint.image.ImageStorageService;
+import com.shopperspoint.repository.CategoryClosureRepo;
+import com.shopperspoint.repository.CategoryRepo;
+import com.shopperspoint.repository.ProductRepo;
+import com.shopperspoint.repository.ProductVariationRepo;
+import com.shopperspoint.repository.SellerRepo;
+import com.shopperspoint.repository.StoredImageRepo;
+import com.shopperspoint.search.ProductSearchIndex;
+import com.shopperspoint.utill.ImageUtils;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(BCryptPasswordEncoder.class)
+class ProductListingStatementsTest {
+
+    private static final int PRODUCTS = 60;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private ProductVariationRepo productVariationRepo;
+
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    @Autowired
+    private CategoryClosureRepo categoryClosureRepo;
+
+    @Autowired
+    private SellerRepo sellerRepo;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private ProductService productService;
+    private Category parent;
+
+    @BeforeEach
+    void setUp() {
+        parent = new Category();
+        parent.setName("electronics");
+        parent = categoryRepo.saveAndFlush(parent);
+
+        Category leaf = new Category();
+        leaf.setName("phones");
+        leaf.setParentCategory(parent);
+        leaf = categoryRepo.saveAndFlush(leaf);
+
+        categoryClosureRepo.saveAllAndFlush(List.of(
+                new CategoryClosure(parent, parent, 0),
+                new CategoryClosure(leaf, leaf, 0),
+                new CategoryClosure(parent, leaf, 1)));
+
+        Seller seller = new Seller();
+        seller.setFirstName("Test");
+        seller.setEmail("seller@test.com");
+        seller.setPassword("secret");
+        seller.setIsActive(true);
+        seller.setIsDeleted(false);
+        seller.setGst("22AAAAA0000A1Z5");
+        seller.setCompanyContact("9999999999");
+        seller.setCompanyName("Test Co");
+        seller = sellerRepo.saveAndFlush(seller);
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            Product product = new Product();
+            product.setName("phone " + i);
+            product.setBrand("brand");
+            product.setIsActive(true);
+            product.setIsDeleted(false);
+            product.setSeller(seller);
+            product.setCategory(leaf);
+            product = productRepo.save(product);
+            // two active variations with images and one inactive one the listing must leave out
+            for (int v = 0; v < 3; v++) {
+                ProductVariation variation = new ProductVariation();
+                variation.setProduct(product);
+                variation.setMetadataFingerprint("fingerprint-" + v);
+                variation.setQuantityAvailable(10);
+                variation.setPrice(100L);
+                variation.setPrimaryImageName("blobs/ab/cd/" + i + "-" + v + ".jpg");
+                variation.setIsActive(v < 2);
+                productVariationRepo.save(variation);
+            }
+        }
+        productRepo.flush();
+        productVariationRepo.flush();
+
+        CategoryTreeCache categoryTreeCache = mock(CategoryTreeCache.class);
+        when(categoryTreeCache.get()).thenReturn(CategoryTree.of(List.of(parent, leaf)));
+
+        ProductViewAssembler productViewAssembler = new ProductViewAssembler(productRepo, productVariationRepo,
+                new ImageUtils(new ImageManifest(mock(StoredImageRepo.class))));
+        ReflectionTestUtils.setField(productViewAssembler, "type", "product-variation");
+
+        productService = new ProductService(productRepo, categoryRepo, productVariationRepo,
+                mock(CategoryMetadataValidatorRegistry.class), mock(SellerService.class), mock(NotificationAggregator.class),
+                new VariationMetadataCache(new ObjectMapper(), 100), mock(MessageSource.class),
+                mock(ProductSearchIndex.class), categoryTreeCache, mock(ProductFacetStore.class), productViewAssembler,
+                new ImageIngestionService(mock(ImageStorageService.class), 4), mock(ImageDerivativeService.class),
+                mock(ImageUtils.class));
+    }
+
+    @Test
+    void listingPageRunsNoCountQuery() {
+        assertThat(statementsForPage(10)).isEqualTo(3);
+    }
+
+    @Test
+    void statementCountDoesNotGrowWithPageSize() {
+        // product ids, their view rows, their variation images, whatever the page size
+        assertThat(statementsForPage(5)).isEqualTo(3);
+        assertThat(statementsForPage(50)).isEqualTo(3);
+    }
+
+    private long statementsForPage(int size) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<ProductViewDTO> page = productService.viewAllProductsByCustomer(1, size, "id", "asc", null, parent.getId());
+
+        assertThat(page).hasSize(size);
+        assertThat(page).allSatisfy(product -> assertThat(product.getPrimaryImageUrl()).hasSize(2));
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,157 @@
+package com.shopperspoint.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shopperspoint.catalog.CategoryMetadataValidatorRegistry;
+import com.shopperspoint.catalog.CategoryTreeCache;
+import com.shopperspoint.catalog.ProductFacetStore;
+import com.shopperspoint.catalog.VariationMetadataCache;
+import com.shopperspoint.dto.ProductVariationRequestDTO;
+import com.shopperspoint.email.NotificationAggregator;
+import com.shopperspoint.entity.*;
+import com.shopperspoint.exceptionhandler.DuplicateEntryException;
+import com.shopperspoint.image.ImageDerivativeService;
+import com.shopperspoint.image.ImageIngestionService;
+import com.shopperspoint.image.ImageStorageService;
+import com.shopperspoint.repository.CategoryRepo;
+import com.shopperspoint.repository.ProductRepo;
+import com.shopperspoint.repository.ProductVariationRepo;
+import com.shopperspoint.repository.SellerRepo;
+import com.shopperspoint.search.ProductSearchIndex;
+import com.shopperspoint.utill.ImageUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.MessageSource;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// commits for real so the racing requests meet at uk_product_variation_fingerprint
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.auto_quote_keyword=true")
+@Import(BCryptPasswordEncoder.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductVariationConcurrencyTest {
+
+    private static final int REQUESTS = 8;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private ProductVariationRepo productVariationRepo;
+
+    @Autowired
+    private CategoryRepo categoryRepo;
+
+    @Autowired
+    private SellerRepo sellerRepo;
+
+    private ProductService productService;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("phones");
+        category = categoryRepo.saveAndFlush(category);
+
+        Seller seller = new Seller();
+        seller.setFirstName("Test");
+        seller.setEmail("seller@test.com");
+        seller.setPassword("secret");
+        seller.setIsActive(true);
+        seller.setIsDeleted(false);
+        seller.setGst("22AAAAA0000A1Z5");
+        seller.setCompanyContact("9999999999");
+        seller.setCompanyName("Test Co");
+        seller = sellerRepo.saveAndFlush(seller);
+
+        product = new Product();
+        product.setName("phone");
+        product.setBrand("brand");
+        product.setIsActive(true);
+        product.setIsDeleted(false);
+        product.setSeller(seller);
+        product.setCategory(category);
+        product = productRepo.saveAndFlush(product);
+
+        CategoryMetadataField field = new CategoryMetadataField();
+        field.setName("color");
+        CategoryMetadataFieldValues values = new CategoryMetadataFieldValues();
+        values.setCategoryMetadataField(field);
+        values.setFieldValues("red,blue");
+
+        CategoryMetadataValidatorRegistry validatorRegistry = mock(CategoryMetadataValidatorRegistry.class);
+        when(validatorRegistry.validatorFor(category.getId()))
+                .thenReturn(CategoryMetadataValidatorRegistry.CompiledValidator.compile(List.of(values)));
+
+        SellerService sellerService = mock(SellerService.class);
+        when(sellerService.getLoggedinSeller(any())).thenReturn(seller);
+
+        productService = new ProductService(productRepo, categoryRepo, productVariationRepo, validatorRegistry,
+                sellerService, mock(NotificationAggregator.class), new VariationMetadataCache(new ObjectMapper(), 100),
+                mock(MessageSource.class), mock(ProductSearchIndex.class), mock(CategoryTreeCache.class),
+                mock(ProductFacetStore.class), mock(ProductViewAssembler.class),
+                new ImageIngestionService(mock(ImageStorageService.class), 4), mock(ImageDerivativeService.class),
+                mock(ImageUtils.class));
+        ReflectionTestUtils.setField(productService, "type", "product-variation");
+        ReflectionTestUtils.setField(productService, "secondary", "product-variation-secondary");
+        ReflectionTestUtils.setField(productService, "message", "SUCCESS");
+    }
+
+    @Test
+    void parallelIdenticalAddsKeepOneVariation() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return productService.addProductVariation(request(), null);
+                }));
+            }
+            start.countDown();
+
+            int succeeded = 0;
+            int duplicates = 0;
+            for (Future<?> result : results) {
+                try {
+                    result.get(30, TimeUnit.SECONDS);
+                    succeeded++;
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(DuplicateEntryException.class);
+                    duplicates++;
+                }
+            }
+
+            assertThat(succeeded).isEqualTo(1);
+            assertThat(duplicates).isEqualTo(REQUESTS - 1);
+            assertThat(productVariationRepo.findByProductId(product.getId())).hasSize(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private ProductVariationRequestDTO request() {
+        ProductVariationRequestDTO request = new ProductVariationRequestDTO();
+        request.setProductId(product.getId());
+        request.setMetaData(Map.of("color", "Red"));
+        request.setQuantityAvailable(5);
+        request.setPrice(100L);
+        return request;
+    }
+}